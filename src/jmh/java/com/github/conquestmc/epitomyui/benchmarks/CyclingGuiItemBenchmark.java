@@ -0,0 +1,44 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.items.CyclingGuiItem;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CyclingGuiItemBenchmark {
+    @Param({"2", "8", "32"})
+    public int states;
+
+    private CyclingGuiItem item;
+
+    @Setup
+    public void setup() {
+        StandInServer.install();
+        this.item = new CyclingGuiItem();
+        for (int i = 0; i < this.states; i++) {
+            this.item.addState(new CyclingGuiItem.State("state-" + i, Material.STONE, i % 64 + 1));
+        }
+    }
+
+    @Benchmark
+    public CyclingGuiItem.State getNextState() {
+        return this.item.getNextState();
+    }
+
+    @Benchmark
+    public void nextState() {
+        this.item.nextState();
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.Gui;
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GuiRenderBenchmark {
+    private Gui gui;
+    private GuiItem[] items;
+    private GuiItem stoneFiller;
+    private GuiItem barrierFiller;
+    private ItemStack emptyFiller;
+    private boolean toggle;
+
+    @Setup
+    public void setup() {
+        StandInServer.install();
+        this.gui = new Gui("bench", 6) {};
+        this.items = new GuiItem[54];
+        for (int slot = 0; slot < this.items.length; slot++) {
+            this.items[slot] = new GuiItem(Material.STONE, slot % 64 + 1);
+            this.gui.setItem(slot, this.items[slot]);
+        }
+        this.stoneFiller = new GuiItem(Material.STONE);
+        this.barrierFiller = new GuiItem(Material.BARRIER);
+        this.emptyFiller = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
+    }
+
+    @Benchmark
+    public void updateUnchanged() {
+        this.gui.update();
+    }
+
+    @Benchmark
+    public void updateAllChanged() {
+        this.toggle = !this.toggle;
+        final Material material = this.toggle ? Material.BARRIER : Material.STONE;
+        for (final GuiItem item : this.items) item.setMaterial(material);
+        this.gui.update();
+    }
+
+    @Benchmark
+    public void fill() {
+        this.toggle = !this.toggle;
+        this.gui.fill(this.toggle ? this.barrierFiller : this.stoneFiller);
+    }
+
+    @Benchmark
+    public void clearAndFillEmpty() {
+        this.gui.fill((ItemStack) null);
+        this.gui.fillEmpty(this.emptyFiller);
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.paginated.PageDirection;
+import com.github.conquestmc.epitomyui.paginated.PageHandlerItem;
+import com.github.conquestmc.epitomyui.paginated.PaginatedGui;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PaginatedGuiBenchmark {
+    @Param({"100", "50000"})
+    public int entries;
+
+    @Param({"8", "1"})
+    public int cachedPages;
+
+    private PaginatedGui gui;
+    private PageHandlerItem previous;
+    private PageHandlerItem next;
+
+    @Setup
+    public void setup() {
+        StandInServer.install();
+        this.gui = new PaginatedGui("bench", 6, "0-44") {};
+        this.gui.setCachedPages(this.cachedPages);
+        final List<GuiInteractable> entries = new ArrayList<>(this.entries);
+        for (int i = 0; i < this.entries; i++) {
+            entries.add(new GuiItem(i % 2 == 0 ? Material.STONE : Material.BARRIER, i % 64 + 1));
+        }
+        this.gui.setEntries(entries);
+        this.previous = new PageHandlerItem(PageDirection.PREVIOUS, Material.ARROW);
+        this.next = new PageHandlerItem(PageDirection.NEXT, Material.ARROW);
+        this.gui.setPageHandler(45, this.previous);
+        this.gui.setPageHandler(53, this.next);
+    }
+
+    @Benchmark
+    public void nextAndPrevious() {
+        // Page handlers ignore the click event itself
+        this.next.getClickEvent().accept(null);
+        this.previous.getClickEvent().accept(null);
+    }
+
+    @Benchmark
+    public void jumpToMiddle() {
+        this.gui.setPage(this.gui.getPageCount() / 2);
+        this.gui.setPage(0);
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.scrolling.ScrollDirection;
+import com.github.conquestmc.epitomyui.scrolling.ScrollHandlerItem;
+import com.github.conquestmc.epitomyui.scrolling.ScrollingGui;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScrollingGuiBenchmark {
+    @Param({"100", "2000"})
+    public int rows;
+
+    private ScrollingGui gui;
+    private ScrollHandlerItem up;
+    private ScrollHandlerItem down;
+
+    @Setup
+    public void setup() {
+        StandInServer.install();
+        this.gui = new ScrollingGui("bench", this.rows, 9, 0, 0) {};
+        for (int row = 0; row < this.rows; row++) {
+            final GuiItem item = new GuiItem(row % 2 == 0 ? Material.STONE : Material.BARRIER, row % 64 + 1);
+            for (int column = 0; column < 9; column++) this.gui.setItem(row, column, item);
+        }
+        this.up = new ScrollHandlerItem(ScrollDirection.UP, Material.GRAY_STAINED_GLASS_PANE);
+        this.down = new ScrollHandlerItem(ScrollDirection.DOWN, Material.GRAY_STAINED_GLASS_PANE);
+        this.gui.setScrollHandler(45, this.up);
+        this.gui.setScrollHandler(53, this.down);
+        this.gui.update();
+    }
+
+    @Benchmark
+    public void update() {
+        this.gui.update();
+    }
+
+    @Benchmark
+    public void scrollDownAndUp() {
+        // Scroll handlers ignore the click event itself
+        this.down.getClickEvent().accept(null);
+        this.up.getClickEvent().accept(null);
+    }
+}
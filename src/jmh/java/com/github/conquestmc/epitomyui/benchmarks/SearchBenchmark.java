@@ -0,0 +1,123 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.search.SearchIndex;
+import com.github.conquestmc.epitomyui.search.SearchableContent;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    private static final String[] WORDS = {
+            "diamond", "iron", "golden", "netherite", "stone", "wooden", "sword", "pickaxe", "shovel", "axe",
+            "helmet", "chestplate", "leggings", "boots", "enchanted", "book", "apple", "carrot", "potion", "arrow"
+    };
+
+    @Param({"12000"})
+    public int entries;
+
+    @Param({"false", "true"})
+    public boolean sorted;
+
+    private SearchableContent<GuiItem> content;
+    private List<GuiItem> items;
+    private Map<GuiItem, String> names;
+
+    @Setup
+    public void setup() {
+        StandInServer.install();
+        final Random random = new Random(42);
+        final Map<GuiItem, String> names = new IdentityHashMap<>();
+        final List<GuiItem> items = new ArrayList<>(this.entries);
+        this.items = items;
+        this.names = names;
+        for (int i = 0; i < this.entries; i++) {
+            final GuiItem item = new GuiItem(i % 2 == 0 ? Material.STONE : Material.BARRIER, i % 64 + 1);
+            names.put(item, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + i);
+            items.add(item);
+        }
+        this.content = new SearchableContent<>(item -> List.of(names.get(item)));
+        this.content.setEntries(items);
+        if (this.sorted) this.content.setComparator(Comparator.comparing(names::get));
+        this.verify();
+    }
+
+    /**
+     * Checks the search against a brute-force scan, covering narrowed
+     * queries while typing, fresh queries and the sort order.
+     */
+    private void verify() {
+        final String typed = "diamond sword #11";
+        for (int i = 0; i <= typed.length(); i++) this.check(typed.substring(0, i), null);
+        for (final String query : new String[] { "pick", "#1234", "iron #5", "zzz", "" }) this.check(query, null);
+
+        final Predicate<GuiItem> stone = item -> item.getItem().getType() == Material.STONE;
+        this.content.setFilter(stone);
+        for (final String query : new String[] { "", "golden", "golden b", "#77" }) this.check(query, stone);
+        this.content.setFilter(null);
+        this.content.search("");
+    }
+
+    private void check(final String query, final Predicate<GuiItem> filter) {
+        final String[] prefixes = SearchIndex.tokenize(query);
+        final List<GuiItem> expected = new ArrayList<>();
+        for (final GuiItem item : this.items) {
+            if (filter != null && !filter.test(item)) continue;
+            final String[] tokens = SearchIndex.tokenize(this.names.get(item));
+            boolean matches = true;
+            for (final String prefix : prefixes) {
+                boolean found = false;
+                for (final String token : tokens) found |= token.startsWith(prefix);
+                matches &= found;
+            }
+            if (matches) expected.add(item);
+        }
+        if (this.sorted) expected.sort(Comparator.comparing(this.names::get));
+
+        final List<GuiItem> actual = this.content.search(query);
+        if (actual.size() != expected.size()) {
+            throw new IllegalStateException("Query \"" + query + "\" found " + actual.size() + " entries instead of " + expected.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (actual.get(i) != expected.get(i)) throw new IllegalStateException("Query \"" + query + "\" differs at entry " + i);
+        }
+    }
+
+    @Benchmark
+    public void typeQuery(final Blackhole blackhole) {
+        // Every keystroke of "dia sw", then clearing the query
+        blackhole.consume(this.content.search("d"));
+        blackhole.consume(this.content.search("di"));
+        blackhole.consume(this.content.search("dia"));
+        blackhole.consume(this.content.search("dia "));
+        blackhole.consume(this.content.search("dia s"));
+        blackhole.consume(this.content.search("dia sw"));
+        blackhole.consume(this.content.search(""));
+    }
+
+    @Benchmark
+    public void freshQuery(final Blackhole blackhole) {
+        blackhole.consume(this.content.search("pick"));
+        blackhole.consume(this.content.search(""));
+    }
+}
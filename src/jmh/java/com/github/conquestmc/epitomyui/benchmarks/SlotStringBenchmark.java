@@ -0,0 +1,26 @@
+package com.github.conquestmc.epitomyui.benchmarks;
+
+import com.github.conquestmc.epitomyui.utils.GuiSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlotStringBenchmark {
+    @Param({"0-53", "0-8,9,17,18,26,27,35,36,44,45-53", "0, 1, 2, 3, 4, 5, 6, 7, 8, 45 - 53"})
+    public String slots;
+
+    @Benchmark
+    public List<Integer> parseSlotString() {
+        return GuiSerializer.parseSlotString(this.slots);
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.conquestmc.epitomyui.loadtest;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A sequence of clicks to replay, ordered by tick. Traces are stored as
+ * text, one {@code tick,player,slot} line per click. Lines starting
+ * with {@code #} are ignored.
+ */
+public final class ClickTrace {
+    private final int[] ticks;
+    private final int[] players;
+    private final int[] slots;
+
+    private ClickTrace(@Nonnull final int[] ticks, @Nonnull final int[] players, @Nonnull final int[] slots) {
+        this.ticks = ticks;
+        this.players = players;
+        this.slots = slots;
+    }
+
+    /**
+     * Generates a trace of players spamming the {@link LoadTestGui}: mostly
+     * scrolling, cycling the sticky item and clicking content.
+     *
+     * @param players The number of players
+     * @param ticks The number of ticks to generate clicks for
+     * @param clickChance The chance of a player clicking in a tick, between 0 and 1
+     * @param seed The random seed
+     * @return The trace
+     */
+    public static @Nonnull ClickTrace synthetic(
+            @Nonnegative final int players,
+            @Nonnegative final int ticks,
+            final double clickChance,
+            final long seed
+    ) {
+        final Random random = new Random(seed);
+        final int expected = (int) Math.ceil(players * (long) ticks * clickChance);
+        final Builder builder = new Builder(expected);
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int player = 0; player < players; player++) {
+                if (random.nextDouble() >= clickChance) continue;
+                final int roll = random.nextInt(100);
+                final int slot;
+                if (roll < 45) slot = LoadTestGui.SCROLL_DOWN_SLOT;
+                else if (roll < 60) slot = LoadTestGui.SCROLL_UP_SLOT;
+                else if (roll < 85) slot = LoadTestGui.CYCLING_SLOT;
+                else slot = random.nextInt(45);
+                builder.add(tick, player, slot);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads a trace from a file.
+     *
+     * @param path The file to read
+     * @return The trace, sorted by tick
+     * @throws IOException If the file could not be read
+     */
+    public static @Nonnull ClickTrace read(@Nonnull final Path path) throws IOException {
+        final List<String> lines = Files.readAllLines(path);
+        final Builder builder = new Builder(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            final String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            final String[] parts = line.split(",");
+            if (parts.length != 3) throw new IOException("Invalid click on line " + (i + 1) + ": " + line);
+            try {
+                builder.add(Integer.parseInt(parts[0].strip()), Integer.parseInt(parts[1].strip()), Integer.parseInt(parts[2].strip()));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid click on line " + (i + 1) + ": " + line, e);
+            }
+        }
+        return builder.build().sorted();
+    }
+
+    /**
+     * Writes the trace to a file, so it can be replayed later.
+     *
+     * @param path The file to write
+     * @throws IOException If the file could not be written
+     */
+    public void write(@Nonnull final Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("# tick,player,slot");
+            writer.newLine();
+            for (int i = 0; i < this.size(); i++) {
+                writer.write(this.ticks[i] + "," + this.players[i] + "," + this.slots[i]);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * @return The number of clicks in the trace
+     */
+    public int size() {
+        return this.ticks.length;
+    }
+
+    /**
+     * @return The number of ticks the trace spans
+     */
+    public int getTickCount() {
+        return this.ticks.length == 0 ? 0 : this.ticks[this.ticks.length - 1] + 1;
+    }
+
+    /**
+     * @return The highest player index in the trace, plus one
+     */
+    public int getPlayerCount() {
+        return Arrays.stream(this.players).max().orElse(-1) + 1;
+    }
+
+    public int getTick(@Nonnegative final int click) {
+        return this.ticks[click];
+    }
+
+    public int getPlayer(@Nonnegative final int click) {
+        return this.players[click];
+    }
+
+    public int getSlot(@Nonnegative final int click) {
+        return this.slots[click];
+    }
+
+    private @Nonnull ClickTrace sorted() {
+        final Integer[] order = new Integer[this.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        // Stable, so clicks within a tick keep their recorded order
+        Arrays.sort(order, (a, b) -> Integer.compare(this.ticks[a], this.ticks[b]));
+        final Builder builder = new Builder(order.length);
+        for (final int i : order) builder.add(this.ticks[i], this.players[i], this.slots[i]);
+        return builder.build();
+    }
+
+    private static final class Builder {
+        private int[] ticks;
+        private int[] players;
+        private int[] slots;
+        private int size;
+
+        Builder(final int capacity) {
+            this.ticks = new int[Math.max(capacity, 16)];
+            this.players = new int[this.ticks.length];
+            this.slots = new int[this.ticks.length];
+        }
+
+        void add(final int tick, final int player, final int slot) {
+            if (tick < 0 || player < 0 || slot < 0) throw new IllegalArgumentException("Clicks cannot have negative values");
+            if (this.size == this.ticks.length) {
+                this.ticks = Arrays.copyOf(this.ticks, this.size * 2);
+                this.players = Arrays.copyOf(this.players, this.size * 2);
+                this.slots = Arrays.copyOf(this.slots, this.size * 2);
+            }
+            this.ticks[this.size] = tick;
+            this.players[this.size] = player;
+            this.slots[this.size] = slot;
+            this.size++;
+        }
+
+        ClickTrace build() {
+            return new ClickTrace(
+                    Arrays.copyOf(this.ticks, this.size),
+                    Arrays.copyOf(this.players, this.size),
+                    Arrays.copyOf(this.slots, this.size)
+            );
+        }
+    }
+}
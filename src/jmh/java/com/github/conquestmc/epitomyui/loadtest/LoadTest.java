@@ -0,0 +1,188 @@
+package com.github.conquestmc.epitomyui.loadtest;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.github.conquestmc.epitomyui.ClickLimiter;
+import com.github.conquestmc.epitomyui.UIProvider;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.scrolling.ScrollingContent;
+import com.github.conquestmc.epitomyui.standin.StandInPlayer;
+import com.github.conquestmc.epitomyui.standin.StandInServer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryType;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replays a click trace through the {@link UIProvider} against the
+ * stand-in server, and reports throughput, click latency and allocation.
+ * Options are passed as {@code key=value} arguments:
+ * <ul>
+ *     <li>{@code players} - the number of simulated players, default 1000</li>
+ *     <li>{@code ticks} - the number of ticks of synthetic clicks, default 200</li>
+ *     <li>{@code chance} - the chance of a player clicking in a tick, default 0.5</li>
+ *     <li>{@code rows} - the number of rows in each player's GUI, default 200</li>
+ *     <li>{@code shared} - whether all players' GUIs share one content grid, default false</li>
+ *     <li>{@code seed} - the random seed of the synthetic trace, default 1</li>
+ *     <li>{@code trace} - a trace file to replay instead of a synthetic trace</li>
+ *     <li>{@code save} - a file to save the replayed trace to</li>
+ *     <li>{@code warmup} - the number of unmeasured replays, default 3</li>
+ *     <li>{@code limit} - the clicks per second allowed by a {@link ClickLimiter}, default none</li>
+ * </ul>
+ */
+public final class LoadTest {
+    private final UIProvider provider = new UIProvider();
+    private final Player[] players;
+    private final ClickTrace trace;
+
+    private LoadTest(@Nonnull final ClickTrace trace, final int players, final int rows, final boolean shared) {
+        this.trace = trace;
+        this.players = new Player[Math.max(players, trace.getPlayerCount())];
+        final ScrollingContent content = shared ? LoadTestGui.createContent(rows) : null;
+        for (int i = 0; i < this.players.length; i++) {
+            this.players[i] = StandInPlayer.create("player" + i, this.provider::onClose);
+            final LoadTestGui gui = content == null ? new LoadTestGui(rows) : new LoadTestGui(content);
+            gui.open(this.players[i]);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> options = new HashMap<>();
+        for (final String arg : args) {
+            final int split = arg.indexOf('=');
+            if (split < 0) throw new IllegalArgumentException("Options must be passed as key=value: " + arg);
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+
+        final int players = Integer.parseInt(options.getOrDefault("players", "1000"));
+        final int rows = Integer.parseInt(options.getOrDefault("rows", "200"));
+        final int warmup = Integer.parseInt(options.getOrDefault("warmup", "3"));
+        final boolean shared = Boolean.parseBoolean(options.getOrDefault("shared", "false"));
+        final ClickTrace trace = options.containsKey("trace")
+                ? ClickTrace.read(Path.of(options.get("trace")))
+                : ClickTrace.synthetic(
+                        players,
+                        Integer.parseInt(options.getOrDefault("ticks", "200")),
+                        Double.parseDouble(options.getOrDefault("chance", "0.5")),
+                        Long.parseLong(options.getOrDefault("seed", "1"))
+                );
+        if (options.containsKey("save")) trace.write(Path.of(options.get("save")));
+        if (options.containsKey("limit")) {
+            final double limit = Double.parseDouble(options.get("limit"));
+            UIProvider.setClickLimiter(new ClickLimiter(limit, (int) Math.ceil(limit), Duration.ofMillis(50)));
+        }
+
+        StandInServer.install();
+        final LoadTest test = new LoadTest(trace, players, rows, shared);
+        final long[] clickNanos = new long[trace.size()];
+        final long[] tickNanos = new long[trace.getTickCount()];
+        for (int i = 0; i < warmup; i++) test.replay(clickNanos, tickNanos);
+
+        GuiMetrics.reset();
+        GuiMetrics.setEnabled(true);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        test.replay(clickNanos, tickNanos);
+        final long elapsed = System.nanoTime() - start;
+        final long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        GuiMetrics.setEnabled(false);
+
+        report(test, elapsed, allocated, clickNanos, tickNanos);
+    }
+
+    /**
+     * Replays the trace once, recording the latency of every click
+     * and every end of tick.
+     */
+    private void replay(@Nonnull final long[] clickNanos, @Nonnull final long[] tickNanos) {
+        int click = 0;
+        for (int tick = 0; tick < tickNanos.length; tick++) {
+            for (; click < this.trace.size() && this.trace.getTick(click) == tick; click++) {
+                final Player player = this.players[this.trace.getPlayer(click)];
+                final InventoryClickEvent event = new InventoryClickEvent(
+                        player.getOpenInventory(),
+                        InventoryType.SlotType.CONTAINER,
+                        this.trace.getSlot(click),
+                        ClickType.LEFT,
+                        InventoryAction.PICKUP_ALL
+                );
+                final long start = System.nanoTime();
+                this.provider.onClick(event);
+                clickNanos[click] = System.nanoTime() - start;
+            }
+
+            final long start = System.nanoTime();
+            this.provider.onTickEnd(new ServerTickEndEvent(tick, 0, 0));
+            tickNanos[tick] = System.nanoTime() - start;
+        }
+    }
+
+    private static void report(
+            @Nonnull final LoadTest test,
+            final long elapsedNanos,
+            final long allocatedBytes,
+            @Nonnull final long[] clickNanos,
+            @Nonnull final long[] tickNanos
+    ) {
+        final double seconds = elapsedNanos / 1e9;
+        final int clicks = clickNanos.length;
+        System.out.printf("Players: %d, ticks: %d, clicks: %d%n", test.players.length, tickNanos.length, clicks);
+        System.out.printf("Elapsed: %.1f ms, throughput: %.0f clicks/s%n", elapsedNanos / 1e6, clicks / seconds);
+        System.out.println("Click latency:    " + percentiles(clickNanos));
+        System.out.println("End of tick:      " + percentiles(tickNanos));
+        System.out.printf(
+                "Allocation: %.1f MB, %.0f B/click, %.1f MB/s%n",
+                allocatedBytes / 1e6,
+                clicks == 0 ? 0D : (double) allocatedBytes / clicks,
+                allocatedBytes / 1e6 / seconds
+        );
+
+        final ClickLimiter limiter = UIProvider.getClickLimiter();
+        if (limiter != null) {
+            System.out.printf("Click limiter: %d throttled, %d debounced%n", limiter.getThrottled(), limiter.getDebounced());
+        }
+
+        System.out.println("Per operation (power-of-two buckets):");
+        for (final GuiMetrics.Snapshot snapshot : GuiMetrics.snapshot()) {
+            System.out.printf(
+                    "  %-10s %-40s count=%d mean=%.1fus p99=%.1fus max=%.1fus%n",
+                    snapshot.operation(),
+                    snapshot.guiClass(),
+                    snapshot.count(),
+                    snapshot.meanNanos() / 1e3,
+                    snapshot.p99Nanos() / 1e3,
+                    snapshot.maxNanos() / 1e3
+            );
+        }
+    }
+
+    private static @Nonnull String percentiles(@Nonnull final long[] nanos) {
+        if (nanos.length == 0) return "no samples";
+        final long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return String.format(
+                "p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                percentile(sorted, 50) / 1e3,
+                percentile(sorted, 90) / 1e3,
+                percentile(sorted, 99) / 1e3,
+                percentile(sorted, 99.9) / 1e3,
+                sorted[sorted.length - 1] / 1e3
+        );
+    }
+
+    private static long percentile(@Nonnull final long[] sorted, final double percentile) {
+        final int rank = (int) Math.ceil(sorted.length * percentile / 100D);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
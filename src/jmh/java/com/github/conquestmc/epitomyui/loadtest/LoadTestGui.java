@@ -0,0 +1,59 @@
+package com.github.conquestmc.epitomyui.loadtest;
+
+import com.github.conquestmc.epitomyui.items.CyclingGuiItem;
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.scrolling.ScrollDirection;
+import com.github.conquestmc.epitomyui.scrolling.ScrollHandlerItem;
+import com.github.conquestmc.epitomyui.scrolling.ScrollingContent;
+import com.github.conquestmc.epitomyui.scrolling.ScrollingGui;
+import org.bukkit.Material;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * The GUI used by the load test: a tall scrolling grid with scroll
+ * handlers and a cycling item in the bottom row.
+ */
+public class LoadTestGui extends ScrollingGui {
+    public static final int SCROLL_UP_SLOT = 45;
+    public static final int CYCLING_SLOT = 49;
+    public static final int SCROLL_DOWN_SLOT = 53;
+
+    public LoadTestGui(@Nonnegative final int rows) {
+        this(createContent(rows));
+    }
+
+    /**
+     * @param content The grid to show, which may be shared with other load test GUIs
+     */
+    public LoadTestGui(@Nonnull final ScrollingContent content) {
+        super("Load test", content, 0, 0);
+
+        final CyclingGuiItem cycling = new CyclingGuiItem(
+                new CyclingGuiItem.State("off", Material.RED_WOOL),
+                new CyclingGuiItem.State("on", Material.LIME_WOOL)
+        );
+        cycling.onClick(event -> event.setCancelled(true));
+        this.setStickyItem(CYCLING_SLOT, cycling);
+        this.setScrollHandler(SCROLL_UP_SLOT, new ScrollHandlerItem(ScrollDirection.UP, Material.ARROW));
+        this.setScrollHandler(SCROLL_DOWN_SLOT, new ScrollHandlerItem(ScrollDirection.DOWN, Material.ARROW));
+        this.update();
+    }
+
+    /**
+     * @param rows The number of rows
+     * @return A grid of the given number of rows filled with items
+     */
+    public static @Nonnull ScrollingContent createContent(@Nonnegative final int rows) {
+        final ScrollingContent content = new ScrollingContent(rows, 9);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < 9; column++) {
+                final GuiItem item = new GuiItem((row + column) % 2 == 0 ? Material.STONE : Material.DIRT, row % 64 + 1);
+                item.onClick(event -> event.setCancelled(true));
+                content.setItem(row, column, item);
+            }
+        }
+        return content;
+    }
+}
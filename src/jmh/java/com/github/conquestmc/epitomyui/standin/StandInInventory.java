@@ -0,0 +1,66 @@
+package com.github.conquestmc.epitomyui.standin;
+
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An array-backed {@link Inventory}. Items are copied on every write,
+ * like the server copies them into its own item representation.
+ */
+public final class StandInInventory {
+    private final InventoryHolder holder;
+    private final InventoryType type;
+    private final ItemStack[] items;
+
+    private StandInInventory(@Nullable final InventoryHolder holder, @Nonnull final InventoryType type, final int size) {
+        this.holder = holder;
+        this.type = type;
+        this.items = new ItemStack[size];
+    }
+
+    static @Nonnull Inventory create(@Nullable final InventoryHolder holder, @Nonnull final InventoryType type, final int size) {
+        final StandInInventory inventory = new StandInInventory(holder, type, size);
+        return StandInServer.proxy(Inventory.class, (method, args) -> inventory.handle(method.getName(), args));
+    }
+
+    private Object handle(@Nonnull final String method, @Nonnull final Object[] args) {
+        return switch (method) {
+            case "getSize" -> this.items.length;
+            case "getItem" -> this.items[(Integer) args[0]];
+            case "setItem" -> {
+                this.set((Integer) args[0], (ItemStack) args[1]);
+                yield null;
+            }
+            case "getContents", "getStorageContents" -> this.items.clone();
+            case "setContents", "setStorageContents" -> {
+                final ItemStack[] contents = (ItemStack[]) args[0];
+                for (int slot = 0; slot < this.items.length; slot++) {
+                    this.set(slot, slot < contents.length ? contents[slot] : null);
+                }
+                yield null;
+            }
+            case "clear" -> {
+                if (args.length == 0) Arrays.fill(this.items, null);
+                else this.items[(Integer) args[0]] = null;
+                yield null;
+            }
+            case "isEmpty" -> Arrays.stream(this.items).allMatch(item -> item == null);
+            case "getHolder" -> this.holder;
+            case "getType" -> this.type;
+            case "getViewers" -> new ArrayList<>();
+            case "iterator" -> Arrays.asList(this.items.clone()).listIterator();
+            default -> null;
+        };
+    }
+
+    private void set(final int slot, final ItemStack item) {
+        this.items[slot] = item == null ? null : item.clone();
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.conquestmc.epitomyui.standin;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+import javax.annotation.Nonnull;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * A stand-in for an online player. It tracks the inventory the player
+ * has open and reports closed inventories to a listener, the same way
+ * the server fires an {@link InventoryCloseEvent}.
+ */
+public final class StandInPlayer {
+    private final UUID uuid = UUID.randomUUID();
+    private final String name;
+    private final Consumer<InventoryCloseEvent> closeListener;
+    private Player player;
+    private Inventory bottom;
+    private StandInView view;
+
+    private StandInPlayer(@Nonnull final String name, @Nonnull final Consumer<InventoryCloseEvent> closeListener) {
+        this.name = name;
+        this.closeListener = closeListener;
+    }
+
+    /**
+     * Creates a stand-in player with only their own inventory open.
+     *
+     * @param name The name of the player
+     * @param closeListener The listener to call when an inventory is closed
+     * @return The player
+     */
+    public static @Nonnull Player create(@Nonnull final String name, @Nonnull final Consumer<InventoryCloseEvent> closeListener) {
+        final StandInPlayer state = new StandInPlayer(name, closeListener);
+        state.player = StandInServer.proxy(Player.class, (method, args) -> state.handle(method.getName(), args));
+        state.bottom = StandInInventory.create(state.player, InventoryType.PLAYER, 36);
+        state.view = state.craftingView();
+        StandInServer.addPlayer(state.player);
+        return state.player;
+    }
+
+    private Object handle(@Nonnull final String method, @Nonnull final Object[] args) {
+        return switch (method) {
+            case "getUniqueId" -> this.uuid;
+            case "getName" -> this.name;
+            case "isOnline", "isValid", "hasPermission" -> true;
+            case "getOpenInventory" -> this.view;
+            case "openInventory" -> args[0] instanceof Inventory inventory ? this.open(inventory) : null;
+            case "closeInventory" -> {
+                this.close(args.length == 0 ? InventoryCloseEvent.Reason.PLUGIN : (InventoryCloseEvent.Reason) args[0]);
+                yield null;
+            }
+            default -> null;
+        };
+    }
+
+    private @Nonnull InventoryView open(@Nonnull final Inventory inventory) {
+        this.close(InventoryCloseEvent.Reason.OPEN_NEW);
+        this.view = new StandInView(inventory, this.bottom, this.player);
+        return this.view;
+    }
+
+    private void close(@Nonnull final InventoryCloseEvent.Reason reason) {
+        // The player's own inventory is never reported as closed
+        if (this.view.getType() == InventoryType.CRAFTING) return;
+        this.closeListener.accept(new InventoryCloseEvent(this.view, reason));
+        this.view = this.craftingView();
+    }
+
+    private @Nonnull StandInView craftingView() {
+        return new StandInView(StandInInventory.create(this.player, InventoryType.CRAFTING, 5), this.bottom, this.player);
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.conquestmc.epitomyui.standin;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.plugin.PluginManager;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * An in-memory stand-in for the Bukkit server, so GUIs can be created
+ * and rendered without a running server. Only the parts of the API
+ * used by the library are implemented, everything else returns a
+ * default value.
+ */
+public final class StandInServer {
+    private static final Logger LOGGER = Logger.getLogger("epitomy-ui-standin");
+    private static final Map<UUID, Player> players = new ConcurrentHashMap<>();
+    private static boolean installed;
+
+    private StandInServer() {
+    }
+
+    /**
+     * Installs the stand-in as the Bukkit server, if it is not installed yet.
+     */
+    public static synchronized void install() {
+        if (installed) return;
+        final ItemFactory itemFactory = proxy(ItemFactory.class, (method, args) -> switch (method.getName()) {
+            // Items never get meta, so two metas are only equal if both are absent
+            case "equals" -> args.length == 2 ? Objects.equals(args[0], args[1]) : null;
+            default -> null;
+        });
+        final PluginManager pluginManager = proxy(PluginManager.class, (method, args) -> null);
+        final Server server = proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "createInventory" -> createInventory(args);
+            case "getItemFactory" -> itemFactory;
+            case "getPluginManager" -> pluginManager;
+            case "isPrimaryThread" -> true;
+            case "getLogger" -> LOGGER;
+            case "getPlayer" -> args[0] instanceof UUID uuid ? players.get(uuid) : null;
+            case "getOnlinePlayers" -> List.copyOf(players.values());
+            case "getName", "getVersion", "getBukkitVersion" -> "stand-in";
+            default -> null;
+        });
+        Bukkit.setServer(server);
+        installed = true;
+    }
+
+    /**
+     * Adds a player to the online players of the stand-in.
+     *
+     * @param player The player to add
+     */
+    static void addPlayer(@Nonnull final Player player) {
+        players.put(player.getUniqueId(), player);
+    }
+
+    private static @Nonnull Inventory createInventory(@Nonnull final Object[] args) {
+        final InventoryHolder holder = (InventoryHolder) args[0];
+        if (args[1] instanceof InventoryType type) {
+            return StandInInventory.create(holder, type, type.getDefaultSize());
+        }
+        return StandInInventory.create(holder, InventoryType.CHEST, (Integer) args[1]);
+    }
+
+    @FunctionalInterface
+    interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Creates a proxy of an interface. Unhandled methods returning
+     * primitives get their default value.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> @Nonnull T proxy(@Nonnull final Class<T> type, @Nonnull final Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + "@stand-in";
+                };
+            }
+            final Object result = handler.handle(method, args == null ? new Object[0] : args);
+            if (result != null || !method.getReturnType().isPrimitive()) return result;
+            return defaultValue(method.getReturnType());
+        });
+    }
+
+    private static Object defaultValue(@Nonnull final Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == void.class) return null;
+        if (type == char.class) return (char) 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0D;
+        if (type == float.class) return 0F;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return 0;
+    }
+}
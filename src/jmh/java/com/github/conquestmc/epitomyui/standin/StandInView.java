@@ -0,0 +1,63 @@
+package com.github.conquestmc.epitomyui.standin;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryView;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A view of a stand-in player looking at an inventory.
+ */
+public final class StandInView extends InventoryView {
+    private final Inventory top;
+    private final Inventory bottom;
+    private final HumanEntity player;
+    private String title;
+
+    StandInView(@Nonnull final Inventory top, @Nonnull final Inventory bottom, @Nonnull final HumanEntity player) {
+        this.top = top;
+        this.bottom = bottom;
+        this.player = player;
+        this.title = top.getType().getDefaultTitle();
+    }
+
+    @Override
+    public @Nonnull Inventory getTopInventory() {
+        return this.top;
+    }
+
+    @Override
+    public @Nonnull Inventory getBottomInventory() {
+        return this.bottom;
+    }
+
+    @Override
+    public @Nonnull HumanEntity getPlayer() {
+        return this.player;
+    }
+
+    // Not annotated with @Override, the abstract methods differ between API versions
+
+    public @Nonnull InventoryType getType() {
+        return this.top.getType();
+    }
+
+    public @Nonnull String getTitle() {
+        return this.title;
+    }
+
+    public @Nonnull String getOriginalTitle() {
+        return this.title;
+    }
+
+    public void setTitle(@Nonnull final String title) {
+        this.title = title;
+    }
+
+    public @Nonnull Component title() {
+        return Component.text(this.title);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.conquestmc.epitomyui;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how fast players can click in GUIs. Each player has a token
+ * bucket that refills at a fixed rate, and each slot can additionally
+ * ignore repeated clicks within a debounce window. Clicks over the
+ * limit are cancelled by the {@link UIProvider} before any handler runs.
+ * <p>
+ * Clicks are taken and budgets discarded on the main thread only. The
+ * counters of dropped clicks can be read from any thread.
+ */
+public class ClickLimiter {
+    private static final int DEBOUNCED_SLOTS = 54;
+    private final double tokensPerNano;
+    private final int burst;
+    private final long debounceNanos;
+    private final Map<UUID, Budget> budgets;
+    private final LongAdder throttled;
+    private final LongAdder debounced;
+
+    /**
+     * @param clicksPerSecond The sustained number of clicks allowed per player
+     * @param burst The number of clicks a player can make at once
+     * @param slotDebounce The minimum time between two clicks on the same slot, or zero to allow any
+     */
+    public ClickLimiter(final double clicksPerSecond, @Nonnegative final int burst, @Nonnull final Duration slotDebounce) {
+        if (clicksPerSecond <= 0) throw new IllegalArgumentException("clicksPerSecond must be positive");
+        if (burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+        this.tokensPerNano = clicksPerSecond / 1_000_000_000D;
+        this.burst = burst;
+        this.debounceNanos = slotDebounce.toNanos();
+        this.budgets = new HashMap<>();
+        this.throttled = new LongAdder();
+        this.debounced = new LongAdder();
+    }
+
+    /**
+     * Takes a click from the player's budget. Must be called on the
+     * main thread.
+     *
+     * @param uuid The UUID of the player clicking
+     * @param slot The raw slot that was clicked
+     * @return True if the click is allowed, otherwise false
+     */
+    public boolean tryClick(@Nonnull final UUID uuid, final int slot) {
+        final long now = System.nanoTime();
+        final Budget budget = this.budgets.computeIfAbsent(uuid, key -> new Budget(this.burst, now));
+
+        final boolean debouncedSlot = this.debounceNanos > 0 && slot >= 0 && slot < DEBOUNCED_SLOTS;
+        if (debouncedSlot) {
+            final long last = budget.lastClicks[slot];
+            if (last != 0 && now - last < this.debounceNanos) {
+                this.debounced.increment();
+                return false;
+            }
+        }
+
+        budget.tokens = Math.min(this.burst, budget.tokens + (now - budget.refilledAt) * this.tokensPerNano);
+        budget.refilledAt = now;
+        if (budget.tokens < 1) {
+            this.throttled.increment();
+            return false;
+        }
+        budget.tokens--;
+        if (debouncedSlot) budget.lastClicks[slot] = now;
+        return true;
+    }
+
+    /**
+     * Discards the budget of a player, e.g. when they close their GUI.
+     * Must be called on the main thread.
+     *
+     * @param uuid The UUID of the player
+     */
+    public void forget(@Nonnull final UUID uuid) {
+        this.budgets.remove(uuid);
+    }
+
+    /**
+     * @return The number of clicks dropped because a player ran out of budget
+     */
+    public long getThrottled() {
+        return this.throttled.sum();
+    }
+
+    /**
+     * @return The number of clicks dropped because the slot was clicked too recently
+     */
+    public long getDebounced() {
+        return this.debounced.sum();
+    }
+
+    /**
+     * @return The total number of clicks dropped
+     */
+    public long getDropped() {
+        return this.getThrottled() + this.getDebounced();
+    }
+
+    private static final class Budget {
+        private final long[] lastClicks;
+        private double tokens;
+        private long refilledAt;
+
+        private Budget(final int tokens, final long now) {
+            this.lastClicks = new long[DEBOUNCED_SLOTS];
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+    }
+}
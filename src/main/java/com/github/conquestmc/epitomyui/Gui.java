@@ -1,7 +1,11 @@
 package com.github.conquestmc.epitomyui;
 
 import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.layers.Compositor;
+import com.github.conquestmc.epitomyui.layers.Layer;
+import com.github.conquestmc.epitomyui.layers.LayerType;
 import com.github.conquestmc.epitomyui.utils.GuiSerializer;
+import com.github.conquestmc.epitomyui.utils.SlotTable;
 import org.bukkit.Material;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.ItemStack;
@@ -12,13 +16,19 @@ import javax.annotation.Nullable;
 import java.util.List;
 
 public abstract class Gui extends GuiBase {
+    private final Compositor compositor;
+    private final Layer content;
 
     public Gui(@Nullable final String title, @Nonnegative final int rows) {
         super(title, rows);
+        this.compositor = new Compositor(this.rendered.length);
+        this.content = this.compositor.getLayer(LayerType.CONTENT);
     }
 
     public Gui(@Nonnull final InventoryType type, @Nullable final String title) {
         super(type, title);
+        this.compositor = new Compositor(this.rendered.length);
+        this.content = this.compositor.getLayer(LayerType.CONTENT);
     }
 
     /**
@@ -27,9 +37,9 @@ public abstract class Gui extends GuiBase {
      * @param item The item to fill the inventory with
      */
     public void fill(@Nonnull final GuiInteractable item) {
-        for (int slot = 0; slot < this.inventory.getSize(); slot++) {
-            this.interactables.put(slot, item);
-            this.inventory.setItem(slot, item.getItem());
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            this.content.set(slot, item);
+            this.renderSlot(slot);
         }
     }
 
@@ -39,8 +49,9 @@ public abstract class Gui extends GuiBase {
      * @param item The item to fill the inventory with
      */
     public void fill(@Nullable final ItemStack item) {
-        for (int slot = 0; slot < this.inventory.getSize(); slot++) {
-            this.inventory.setItem(slot, item);
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            this.content.set(slot, item);
+            this.renderSlot(slot);
         }
     }
 
@@ -50,10 +61,10 @@ public abstract class Gui extends GuiBase {
      * @param item The item to fill the empty slots with
      */
     public void fillEmpty(@Nonnull final GuiInteractable item) {
-        for (int slot = 0; slot < this.inventory.getSize(); slot++) {
-            if (this.inventory.getItem(slot) != null) continue;
-            this.interactables.put(slot, item);
-            this.inventory.setItem(slot, item.getItem());
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            if (this.rendered[slot] != null) continue;
+            this.content.set(slot, item);
+            this.renderSlot(slot);
         }
     }
 
@@ -72,9 +83,10 @@ public abstract class Gui extends GuiBase {
      * @param item The item to fill the empty slots with
      */
     public void fillEmpty(@Nonnull final ItemStack item) {
-        for (int slot = 0; slot < this.inventory.getSize(); slot++) {
-            if (this.inventory.getItem(slot) != null) continue;
-            this.inventory.setItem(slot, item);
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            if (this.rendered[slot] != null) continue;
+            this.content.set(slot, item);
+            this.renderSlot(slot);
         }
     }
 
@@ -99,9 +111,9 @@ public abstract class Gui extends GuiBase {
      */
     @Override
     public void setItem(@Nonnegative final int slot, @Nonnull final GuiInteractable item) {
-        if (slot >= inventory.getSize()) return;
-        this.interactables.put(slot, item);
-        this.inventory.setItem(slot, item.getItem());
+        if (slot >= this.rendered.length) return;
+        this.content.set(slot, item);
+        this.renderSlot(slot);
     }
 
     /**
@@ -124,8 +136,73 @@ public abstract class Gui extends GuiBase {
      * @param item The item to set
      */
     public void setItem(@Nonnegative final int slot, @Nullable final ItemStack item) {
-        if (slot >= inventory.getSize()) return;
-        this.interactables.remove(slot);
-        this.inventory.setItem(slot, item);
+        if (slot >= this.rendered.length) return;
+        this.content.set(slot, item);
+        this.renderSlot(slot);
+    }
+
+    /**
+     * Sets the given slot of a layer to the given item. The slot
+     * shows the item of the highest layer that covers it, so the
+     * item of a lower layer shows again once it is removed.
+     *
+     * @param layer The layer to set the item in
+     * @param slot The slot to set
+     * @param item The item to set
+     */
+    public void setItem(@Nonnull final LayerType layer, @Nonnegative final int slot, @Nonnull final GuiInteractable item) {
+        if (slot >= this.rendered.length) return;
+        this.getLayer(layer).set(slot, item);
+        this.renderSlot(slot);
+    }
+
+    /**
+     * Sets the given slot of a layer to the given item. The slot
+     * shows the item of the highest layer that covers it, so the
+     * item of a lower layer shows again once it is removed.
+     *
+     * @param layer The layer to set the item in
+     * @param slot The slot to set
+     * @param item The item to set, or null to remove it
+     */
+    public void setItem(@Nonnull final LayerType layer, @Nonnegative final int slot, @Nullable final ItemStack item) {
+        if (slot >= this.rendered.length) return;
+        this.getLayer(layer).set(slot, item);
+        this.renderSlot(slot);
+    }
+
+    /**
+     * Removes the item of a layer, showing the item of the next
+     * lower layer covering the slot.
+     *
+     * @param layer The layer to remove the item from
+     * @param slot The slot to remove the item from
+     */
+    public void removeItem(@Nonnull final LayerType layer, @Nonnegative final int slot) {
+        if (slot >= this.rendered.length) return;
+        if (this.getLayer(layer).remove(slot)) this.renderSlot(slot);
+    }
+
+    @Override
+    void load(@Nonnull final ItemStack[] contents, @Nonnull final SlotTable<GuiInteractable> interactables) {
+        super.load(contents, interactables);
+        // Templates hold the composited contents, so they are loaded as a single content layer
+        this.compositor.clear();
+        for (int slot = 0; slot < contents.length; slot++) {
+            final GuiInteractable interactable = interactables.get(slot);
+            if (interactable != null) this.content.set(slot, interactable);
+            else this.content.set(slot, contents[slot]);
+        }
+    }
+
+    private @Nonnull Layer getLayer(@Nonnull final LayerType type) {
+        if (type == LayerType.OVERLAY) {
+            throw new IllegalArgumentException("Overlay items are set per player, use setOverlayItem instead");
+        }
+        return this.compositor.getLayer(type);
+    }
+
+    private void renderSlot(@Nonnegative final int slot) {
+        this.renderLayer(slot, this.compositor.resolve(slot));
     }
 }
@@ -1,9 +1,19 @@
 package com.github.conquestmc.epitomyui;
 
 import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.jfr.GuiOpenEvent;
+import com.github.conquestmc.epitomyui.jfr.GuiRenderEvent;
+import com.github.conquestmc.epitomyui.layers.Layer;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.metrics.GuiOperation;
+import com.github.conquestmc.epitomyui.utils.Logging;
+import com.github.conquestmc.epitomyui.utils.SlotTable;
+import com.github.conquestmc.epitomyui.utils.Threads;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryType;
 import org.bukkit.inventory.Inventory;
@@ -13,50 +23,639 @@ import org.bukkit.inventory.ItemStack;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 
 public abstract class GuiBase implements InventoryHolder {
-    protected final Inventory inventory;
-    protected final Map<Integer, GuiInteractable> interactables;
+    // Released pooled inventories are lent to other GUIs, so access goes through getInventory()
+    private Inventory inventory;
+    protected final SlotTable<GuiInteractable> interactables;
+    protected final ItemStack[] rendered;
+    private final String title;
+    private final InventoryType type;
+    private final Map<UUID, GuiOverlay> overlays;
+    private final BitSet pending;
+    private final Map<UUID, Set<GuiInteractable>> locked;
+    private boolean batched;
+    private boolean retained;
+    private boolean released;
+    private long writes;
+    private CompletableFuture<Void> loading;
+    private UUID loadingFor;
+    private ItemStack placeholder;
+    private BitSet placeholders;
 
-    @SuppressWarnings("deprecation")
     public GuiBase(@Nullable final String title, @Nonnegative int rows) {
-        if (title == null) this.inventory = Bukkit.createInventory(this, rows * 9);
-        else this.inventory = Bukkit.createInventory(this, rows * 9, title);
-        this.interactables = new HashMap<>(rows * 9);
+        this.title = title;
+        this.type = null;
+        this.inventory = this.createInventory(rows * 9);
+        this.rendered = new ItemStack[this.inventory.getSize()];
+        this.interactables = new SlotTable<>(this.rendered.length);
+        this.overlays = new HashMap<>();
+        this.pending = new BitSet(this.rendered.length);
+        this.locked = new HashMap<>();
     }
 
-    @SuppressWarnings("deprecation")
     public GuiBase(@Nonnull final InventoryType type, @Nullable final String title) {
-        if (title == null) this.inventory = Bukkit.createInventory(this, type);
-        else this.inventory = Bukkit.createInventory(this, type, title);
-        this.interactables = new HashMap<>(type.getDefaultSize());
+        this.title = title;
+        this.type = type;
+        this.inventory = this.createInventory(type.getDefaultSize());
+        this.rendered = new ItemStack[this.inventory.getSize()];
+        this.interactables = new SlotTable<>(this.rendered.length);
+        this.overlays = new HashMap<>();
+        this.pending = new BitSet(this.rendered.length);
+        this.locked = new HashMap<>();
+    }
+
+    private @Nonnull Inventory createInventory(@Nonnegative final int size) {
+        final InventoryPool pool = UIProvider.getInventoryPool();
+        if (pool != null) return pool.borrow(this, this.type, size, this.title);
+        return createInventory(this, this.type, size, this.title);
+    }
+
+    @SuppressWarnings("deprecation")
+    static @Nonnull Inventory createInventory(
+            @Nonnull final InventoryHolder holder,
+            @Nullable final InventoryType type,
+            @Nonnegative final int size,
+            @Nullable final String title
+    ) {
+        if (type == null) {
+            if (title == null) return Bukkit.createInventory(holder, size);
+            else return Bukkit.createInventory(holder, size, title);
+        }
+        if (title == null) return Bukkit.createInventory(holder, type);
+        else return Bukkit.createInventory(holder, type, title);
+    }
+
+    /**
+     * Gets the GUI an inventory belongs to. Use this instead of checking
+     * the inventory holder, since pooled inventories are not held by
+     * their GUI directly.
+     *
+     * @param inventory The inventory to get the GUI of
+     * @return The GUI, or null if the inventory does not belong to one
+     */
+    public static @Nullable GuiBase getGui(@Nonnull final Inventory inventory) {
+        final InventoryHolder holder = inventory.getHolder(false);
+        if (holder instanceof GuiBase gui) return gui;
+        if (holder instanceof PooledHolder pooled) return pooled.getGui();
+        return null;
     }
 
     /**
-     * Opens the GUI for the given player.
+     * Opens the GUI for the given player. A GUI can be opened for
+     * any number of players at once, who then share its contents.
      *
      * @param player The player to open the GUI for
      */
     public void open(@Nonnull final Player player) {
+        final long start = GuiMetrics.start();
+        final GuiOpenEvent event = new GuiOpenEvent();
+        event.begin();
+        this.flush();
         UIProvider.registerUI(player.getUniqueId(), this);
-        player.openInventory(this.inventory);
+        player.openInventory(this.getInventory(player));
+        GuiMetrics.record(this.getClass(), GuiOperation.OPEN, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.player = player.getName();
+            event.slots = this.rendered.length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Opens the GUI for the given player straight away and loads its
+     * contents in the background. Empty slots show the placeholder
+     * until the loaded items are applied on the main thread. Loading
+     * is cancelled if the player closes the GUI first, but not if they
+     * open another inventory over it.
+     *
+     * @param player The player to open the GUI for
+     * @param placeholder The item to show in empty slots while loading
+     * @param loader Builds the items to set, keyed by slot
+     * @return A future completing once the items are applied
+     */
+    public @Nonnull CompletableFuture<Void> openAsync(
+            @Nonnull final Player player,
+            @Nullable final ItemStack placeholder,
+            @Nonnull final Supplier<? extends Map<Integer, ? extends GuiInteractable>> loader
+    ) {
+        return this.openAsync(player, placeholder, loader, Threads.ASYNC);
+    }
+
+    /**
+     * Opens the GUI for the given player straight away and loads its
+     * contents using the given executor. Empty slots show the placeholder
+     * until the loaded items are applied on the main thread. Loading
+     * is cancelled if the player closes the GUI first, but not if they
+     * open another inventory over it.
+     *
+     * @param player The player to open the GUI for
+     * @param placeholder The item to show in empty slots while loading
+     * @param loader Builds the items to set, keyed by slot
+     * @param executor The executor to run the loader on
+     * @return A future completing once the items are applied
+     */
+    public @Nonnull CompletableFuture<Void> openAsync(
+            @Nonnull final Player player,
+            @Nullable final ItemStack placeholder,
+            @Nonnull final Supplier<? extends Map<Integer, ? extends GuiInteractable>> loader,
+            @Nonnull final Executor executor
+    ) {
+        if (this.loading != null) this.cancelLoading();
+
+        final BitSet placeholders = new BitSet(this.rendered.length);
+        if (placeholder != null) {
+            for (int slot = 0; slot < this.rendered.length; slot++) {
+                if (this.rendered[slot] != null) continue;
+                this.render(slot, placeholder);
+                placeholders.set(slot);
+            }
+        }
+        this.open(player);
+
+        // The fields are set before loading starts, since a loader that finished already
+        // has its items applied inline when this runs on the main thread
+        final CompletableFuture<Void> loading = new CompletableFuture<>();
+        this.loading = loading;
+        this.loadingFor = player.getUniqueId();
+        this.placeholder = placeholder;
+        this.placeholders = placeholders;
+        try {
+            CompletableFuture.supplyAsync(loader, executor)
+                    .whenCompleteAsync((items, e) -> this.completeLoading(loading, items, e), Threads.MAIN);
+        } catch (RejectedExecutionException e) {
+            this.completeLoading(loading, null, e);
+        }
+        return loading;
+    }
+
+    /**
+     * Applies the loaded items, unless loading was cancelled or
+     * replaced by another load in the meantime.
+     *
+     * @param loading The future of the load that completed
+     * @param items The loaded items, or null if loading failed
+     * @param error The error loading failed with, or null if it succeeded
+     */
+    private void completeLoading(
+            @Nonnull final CompletableFuture<Void> loading,
+            @Nullable final Map<Integer, ? extends GuiInteractable> items,
+            @Nullable final Throwable error
+    ) {
+        if (this.loading != loading) return;
+        if (loading.isDone()) {
+            // Cancelled through the returned future
+            this.cancelLoading();
+            return;
+        }
+        if (error != null) {
+            Logging.LOGGER.log(Level.SEVERE, "Could not load the contents of " + this.getClass().getSimpleName(), error);
+            loading.completeExceptionally(error);
+            this.cancelLoading();
+            return;
+        }
+        try {
+            this.applyLoaded(items, this.placeholders);
+            loading.complete(null);
+        } catch (RuntimeException e) {
+            Logging.LOGGER.log(Level.SEVERE, "Could not apply the contents of " + this.getClass().getSimpleName(), e);
+            loading.completeExceptionally(e);
+            if (this.loading == loading) this.cancelLoading();
+        }
+    }
+
+    /**
+     * Cancels loading the contents and clears the slots that still
+     * show the placeholder, so they do not show it for good. Does
+     * nothing to the future if it completed already.
+     */
+    private void cancelLoading() {
+        this.loading.cancel(false);
+        final BitSet placeholders = this.placeholders;
+        for (int slot = placeholders.nextSetBit(0); slot >= 0; slot = placeholders.nextSetBit(slot + 1)) {
+            if (this.interactables.get(slot) == null && this.placeholder.equals(this.rendered[slot])) this.render(slot, null);
+        }
+        this.loading = null;
+        this.loadingFor = null;
+        this.placeholder = null;
+        this.placeholders = null;
+    }
+
+    private void applyLoaded(@Nonnull final Map<Integer, ? extends GuiInteractable> items, @Nonnull final BitSet placeholders) {
+        final boolean wasBatched = this.batched;
+        this.batched = true;
+        for (int slot = placeholders.nextSetBit(0); slot >= 0; slot = placeholders.nextSetBit(slot + 1)) {
+            this.render(slot, null);
+        }
+        for (final Map.Entry<Integer, ? extends GuiInteractable> entry : items.entrySet()) {
+            this.setItem(entry.getKey(), entry.getValue());
+        }
+        this.update();
+        this.setBatched(wasBatched);
+        this.loading = null;
+        this.loadingFor = null;
+        this.placeholder = null;
+        this.placeholders = null;
     }
 
     /**
      * Updates all interactable items in the inventory.
      */
     public void update() {
-        for (final Map.Entry<Integer, GuiInteractable> entry : this.interactables.entrySet()) {
-            final int slot = entry.getKey();
-            final ItemStack item = entry.getValue().getItem();
-            this.inventory.setItem(slot, item);
+        final long start = GuiMetrics.start();
+        final GuiRenderEvent event = new GuiRenderEvent();
+        event.begin();
+        final long writes = this.writes;
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            final GuiInteractable interactable = this.interactables.get(slot);
+            if (interactable == null) continue;
+            this.render(slot, interactable.getItem());
+        }
+        this.updateOverlays();
+        GuiMetrics.record(this.getClass(), GuiOperation.RENDER, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.slotsWritten = (int) (this.writes - writes);
+            event.commit();
+        }
+    }
+
+    /**
+     * Re-renders the overlay items of all players. Subclasses
+     * overriding {@link #update()} should call this as well.
+     */
+    protected void updateOverlays() {
+        for (final GuiOverlay overlay : this.overlays.values()) overlay.update();
+    }
+
+    /**
+     * Renders an item to the given slot of the inventory. The item
+     * is only pushed to the inventory if it differs from the item
+     * that was last rendered to the slot. If the Gui is batched,
+     * the slot is pushed on the next {@link #flush()} instead.
+     *
+     * @param slot The slot to render the item to
+     * @param item The item to render
+     * @return True if the slot was changed, otherwise false
+     */
+    protected boolean render(@Nonnegative final int slot, @Nullable ItemStack item) {
+        if (item != null && item.getType().isAir()) item = null;
+        final ItemStack current = this.rendered[slot];
+        if (current == null ? item == null : current.equals(item)) return false;
+
+        // Items are mutable, so a copy is kept to detect in-place changes
+        this.rendered[slot] = item == null ? null : item.clone();
+        this.writes++;
+        if (this.batched) {
+            if (this.pending.isEmpty()) UIProvider.scheduleFlush(this);
+            this.pending.set(slot);
+        } else {
+            this.push(slot);
+        }
+        return true;
+    }
+
+    /**
+     * Renders the cell of a layer to the given slot, registering
+     * its interactable if it has one.
+     *
+     * @param slot The slot to render to
+     * @param layer The topmost layer covering the slot, or null to clear it
+     */
+    protected void renderLayer(@Nonnegative final int slot, @Nullable final Layer layer) {
+        final GuiInteractable interactable = layer == null ? null : layer.getInteractable(slot);
+        if (interactable != null) {
+            this.interactables.put(slot, interactable);
+            this.render(slot, interactable.getItem());
+            return;
+        }
+        this.interactables.remove(slot);
+        this.render(slot, layer == null ? null : layer.getItem(slot));
+    }
+
+    /**
+     * Renders items to many slots at once. If any slot changed, the
+     * whole inventory is pushed with a single bulk content update, or
+     * on the next {@link #flush()} if the Gui is batched. Unlike
+     * {@link #render(int, ItemStack)} the items are not copied, so
+     * they must not be modified afterwards.
+     *
+     * @param slots The slots to render to
+     * @param items The items to render, indexed like the slots
+     * @return True if any slot was changed, otherwise false
+     */
+    protected boolean renderAll(@Nonnull final int[] slots, @Nonnull final ItemStack[] items) {
+        final boolean scheduled = !this.pending.isEmpty();
+        boolean changed = false;
+        for (int i = 0; i < slots.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && item.getType().isAir()) item = null;
+            final ItemStack current = this.rendered[slots[i]];
+            if (current == item || current != null && current.equals(item)) continue;
+            this.rendered[slots[i]] = item;
+            this.pending.set(slots[i]);
+            this.writes++;
+            changed = true;
+        }
+        if (!changed) return false;
+        if (this.batched) {
+            if (!scheduled) UIProvider.scheduleFlush(this);
+        } else {
+            this.pushAll();
+            this.pending.clear();
+        }
+        return true;
+    }
+
+    private void push(@Nonnegative final int slot) {
+        final ItemStack item = this.rendered[slot];
+        if (!this.released) this.inventory.setItem(slot, item);
+        for (final GuiOverlay overlay : this.overlays.values()) overlay.mirror(slot, item);
+    }
+
+    /**
+     * Replaces all contents and interactables of the GUI. The given
+     * items are shared rather than copied, so they must not be modified.
+     *
+     * @param contents The items to render
+     * @param interactables The interactables to set
+     */
+    void load(@Nonnull final ItemStack[] contents, @Nonnull final SlotTable<GuiInteractable> interactables) {
+        this.interactables.copyFrom(interactables);
+        System.arraycopy(contents, 0, this.rendered, 0, this.rendered.length);
+
+        final boolean scheduled = !this.pending.isEmpty();
+        this.pending.set(0, this.rendered.length);
+        if (!this.batched) this.flush();
+        else if (!scheduled) UIProvider.scheduleFlush(this);
+    }
+
+    /**
+     * @return The number of slots that changed and were rendered since the GUI was created
+     */
+    public long getWriteCount() {
+        return this.writes;
+    }
+
+    /**
+     * Pushes all slots rendered since the last flush to the inventory.
+     * Large batches are written with a single bulk content update.
+     */
+    public void flush() {
+        if (this.pending.isEmpty()) return;
+        if (this.pending.cardinality() * 2 >= this.rendered.length) {
+            this.pushAll();
+        } else {
+            for (int slot = this.pending.nextSetBit(0); slot >= 0; slot = this.pending.nextSetBit(slot + 1)) {
+                this.push(slot);
+            }
+        }
+        this.pending.clear();
+    }
+
+    private void pushAll() {
+        if (!this.released) this.inventory.setContents(this.rendered);
+        for (final GuiOverlay overlay : this.overlays.values()) overlay.mirror(this.rendered);
+    }
+
+    /**
+     * Sets whether rendered slots are collected and pushed to the
+     * inventory once at the end of the tick, rather than immediately.
+     * Requires the {@link UIProvider} to be registered as a listener.
+     *
+     * @param batched Should writes be batched or not
+     */
+    public void setBatched(final boolean batched) {
+        this.batched = batched;
+        if (!batched) this.flush();
+    }
+
+    /**
+     * @return True if writes to the inventory are batched, otherwise false
+     */
+    public boolean isBatched() {
+        return this.batched;
+    }
+
+    /**
+     * Marks the GUI as intentionally kept after it is closed, e.g. a
+     * GUI shared by several players or cached to be opened again.
+     * Retained GUIs are not reported as leaked by the session sweep.
+     *
+     * @param retained Is the GUI kept after closing or not
+     */
+    public void setRetained(final boolean retained) {
+        this.retained = retained;
+    }
+
+    /**
+     * @return True if the GUI is intentionally kept after closing, otherwise false
+     */
+    public boolean isRetained() {
+        return this.retained;
+    }
+
+    /**
+     * Re-reads the contents of the inventory into the render buffer.
+     * Only needed if the inventory was modified without going through
+     * the Gui, e.g. by a click that was not cancelled.
+     */
+    public void resync() {
+        this.flush();
+        if (this.released) return;
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            final ItemStack item = this.inventory.getItem(slot);
+            this.rendered[slot] = item == null || item.getType().isAir() ? null : item.clone();
         }
     }
 
     public abstract void setItem(@Nonnegative final int slot, @Nonnull final GuiInteractable item);
 
+    /**
+     * Sets an item that only the given player sees. The rest of
+     * the GUI stays shared with all other viewers. Overlays are
+     * discarded when the player closes the GUI, but kept while
+     * they are in a GUI opened from this one.
+     *
+     * @param player The player to set the item for
+     * @param slot The slot to set the item at
+     * @param item The item to set
+     */
+    public void setOverlayItem(@Nonnull final Player player, @Nonnegative final int slot, @Nonnull final GuiInteractable item) {
+        if (slot >= this.rendered.length || !player.isOnline()) return;
+        this.flush();
+
+        GuiOverlay overlay = this.overlays.get(player.getUniqueId());
+        final boolean created = overlay == null;
+        if (created) overlay = new GuiOverlay(createInventory(this, this.type, this.rendered.length, this.title), this.rendered);
+        overlay.interactables.set(slot, item);
+        overlay.inventory.setItem(slot, item.getItem());
+        if (!created) return;
+
+        // Move the player over to their own inventory if they are viewing the shared one. The
+        // overlay is added afterwards, so the close of the shared inventory cannot discard it.
+        if (!this.released && player.getOpenInventory().getTopInventory() == this.inventory) {
+            player.openInventory(overlay.inventory);
+            UIProvider.registerUI(player.getUniqueId(), this);
+        }
+        this.overlays.put(player.getUniqueId(), overlay);
+    }
+
+    /**
+     * Removes an overlay item, showing the shared item again.
+     *
+     * @param player The player to remove the item for
+     * @param slot The slot to remove the item from
+     */
+    public void removeOverlayItem(@Nonnull final Player player, @Nonnegative final int slot) {
+        final GuiOverlay overlay = this.overlays.get(player.getUniqueId());
+        if (overlay == null || !overlay.interactables.remove(slot)) return;
+        overlay.inventory.setItem(slot, this.rendered[slot]);
+    }
+
+    /**
+     * Gets the interactable the given player sees at a slot.
+     *
+     * @param player The player to get the interactable for
+     * @param slot The slot to get the interactable from
+     * @return The overlay interactable if one is set, otherwise the shared one
+     */
+    public @Nullable GuiInteractable getInteractable(@Nonnull final HumanEntity player, @Nonnegative final int slot) {
+        final GuiOverlay overlay = this.overlays.get(player.getUniqueId());
+        if (overlay != null) {
+            final GuiInteractable item = overlay.interactables.getInteractable(slot);
+            if (item != null) return item;
+        }
+        return this.interactables.get(slot);
+    }
+
+    /**
+     * Re-renders the slot as seen by the given player.
+     *
+     * @param player The player to re-render the slot for
+     * @param slot The slot to re-render
+     */
+    void refresh(@Nonnull final HumanEntity player, @Nonnegative final int slot) {
+        final GuiOverlay overlay = this.overlays.get(player.getUniqueId());
+        final GuiInteractable overlayItem = overlay == null ? null : overlay.interactables.getInteractable(slot);
+        if (overlayItem != null) {
+            overlay.inventory.setItem(slot, overlayItem.getItem());
+            return;
+        }
+        final GuiInteractable item = this.interactables.get(slot);
+        if (item == null) return;
+        this.render(slot, item.getItem());
+        this.onRefresh(slot);
+    }
+
+    /**
+     * Called after a shared slot was re-rendered because its item may
+     * have changed in place, e.g. by its click handler. Subclasses
+     * caching rendered items should drop them here.
+     *
+     * @param slot The slot that was re-rendered
+     */
+    protected void onRefresh(@Nonnegative final int slot) {
+    }
+
+    /**
+     * Locks an interactable for a player while an asynchronous click
+     * handler is running for their click. Interactables are locked
+     * rather than slots, since the slot may show another item by the
+     * time the handler completes, e.g. after scrolling. Other viewers
+     * of a shared GUI can still click the interactable.
+     *
+     * @param uuid The UUID of the player that clicked
+     * @param item The interactable to lock
+     * @return True if the interactable was locked, or false if it was locked already
+     */
+    public boolean tryLock(@Nonnull final UUID uuid, @Nonnull final GuiInteractable item) {
+        return this.locked.computeIfAbsent(uuid, key -> Collections.newSetFromMap(new IdentityHashMap<>())).add(item);
+    }
+
+    /**
+     * Unlocks an interactable locked by {@link #tryLock(UUID, GuiInteractable)}.
+     *
+     * @param uuid The UUID of the player that clicked
+     * @param item The interactable to unlock
+     */
+    public void unlock(@Nonnull final UUID uuid, @Nonnull final GuiInteractable item) {
+        final Set<GuiInteractable> items = this.locked.get(uuid);
+        if (items == null || !items.remove(item)) return;
+        if (items.isEmpty()) this.locked.remove(uuid);
+    }
+
+    /**
+     * @param uuid The UUID of the player to check
+     * @param item The interactable to check
+     * @return True if an asynchronous click handler is running for the player's click on the interactable, otherwise false
+     */
+    public boolean isLocked(@Nonnull final UUID uuid, @Nonnull final GuiInteractable item) {
+        final Set<GuiInteractable> items = this.locked.get(uuid);
+        return items != null && items.contains(item);
+    }
+
+    /**
+     * Called by the {@link UIProvider} when a viewer closes an inventory
+     * belonging to this GUI.
+     *
+     * @param player The player that closed the inventory
+     * @param inventory The inventory that was closed
+     * @param reason The reason the inventory was closed
+     */
+    void handleClose(@Nonnull final HumanEntity player, @Nonnull final Inventory inventory, @Nonnull final InventoryCloseEvent.Reason reason) {
+        // The session keeps the GUI while another inventory is opened over it, the overlay is
+        // discarded once the session releases it. Any other close discards it straight away.
+        final GuiOverlay overlay = reason == InventoryCloseEvent.Reason.OPEN_NEW
+                ? this.overlays.get(player.getUniqueId())
+                : this.overlays.remove(player.getUniqueId());
+        final boolean viewing = (overlay == null ? this.inventory : overlay.inventory) == inventory;
+        if (viewing && reason != InventoryCloseEvent.Reason.OPEN_NEW && this.loading != null && player.getUniqueId().equals(this.loadingFor)) {
+            this.cancelLoading();
+        }
+
+        // The closing player is still a viewer, so the inventory is returned once the tick ends
+        if (inventory == this.inventory && inventory.getHolder(false) instanceof PooledHolder) {
+            Threads.runLater(this::releaseInventory);
+        }
+    }
+
+    /**
+     * Discards the overlay of a player, e.g. once the GUI was
+     * removed from their session.
+     *
+     * @param uuid The UUID of the player
+     */
+    void removeOverlay(@Nonnull final UUID uuid) {
+        this.overlays.remove(uuid);
+    }
+
+    /**
+     * Returns a pooled inventory to its pool if nobody is viewing it.
+     * The GUI borrows a new one the next time its inventory is needed.
+     */
+    private void releaseInventory() {
+        if (this.released || !this.inventory.getViewers().isEmpty()) return;
+        if (!(this.inventory.getHolder(false) instanceof PooledHolder holder) || holder.getGui() != this) return;
+        holder.getPool().release(this.inventory);
+        this.released = true;
+    }
+
     /**
      * Called when an item in the inventory is clicked.
      *
@@ -82,27 +681,80 @@ public abstract class GuiBase implements InventoryHolder {
      */
     @Override
     public @Nonnull Inventory getInventory() {
+        if (this.released) {
+            this.inventory = this.createInventory(this.rendered.length);
+            this.inventory.setContents(this.rendered);
+            this.released = false;
+        }
         return this.inventory;
     }
 
     /**
-     * @return The interactable {@link GuiInteractable}s in the Gui
+     * @param player The player to get the inventory for
+     * @return The player's overlay {@link Inventory} if they have one, otherwise the shared one
+     */
+    public @Nonnull Inventory getInventory(@Nonnull final HumanEntity player) {
+        final GuiOverlay overlay = this.overlays.get(player.getUniqueId());
+        return overlay == null ? this.getInventory() : overlay.inventory;
+    }
+
+    /**
+     * @return All players viewing the GUI, including those with overlays
+     */
+    public @Nonnull List<HumanEntity> getViewers() {
+        final List<HumanEntity> viewers = new ArrayList<>();
+        if (!this.released) viewers.addAll(this.inventory.getViewers());
+        for (final GuiOverlay overlay : this.overlays.values()) viewers.addAll(overlay.inventory.getViewers());
+        return viewers;
+    }
+
+    /**
+     * @return A read-only view of the interactable {@link GuiInteractable}s in the Gui
      */
     public @Nonnull Map<Integer, GuiInteractable> getInteractables() {
-        return this.interactables;
+        return this.interactables.asMap();
+    }
+
+    /**
+     * Gets the item that was last rendered to the given slot.
+     *
+     * @param slot The slot to get the item from
+     * @return The rendered {@link ItemStack}, or null if the slot is empty
+     */
+    public @Nullable ItemStack getRenderedItem(@Nonnegative final int slot) {
+        if (slot >= this.rendered.length) return null;
+        return this.rendered[slot];
     }
 
     /**
+     * The returned items are the ones held by the render buffer and
+     * should not be modified.
+     *
      * @return All {@link ItemStack}s contained in the {@link Inventory}
      */
     public @Nonnull Map<Integer, ItemStack> getItems() {
-        final int size = this.inventory.getSize();
-        final Map<Integer, ItemStack> items = new HashMap<>(size);
-        for (int slot = 0; slot < size; slot++) {
-            ItemStack item = this.inventory.getItem(slot);
+        final Map<Integer, ItemStack> items = new HashMap<>(this.rendered.length);
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            final ItemStack item = this.rendered[slot];
             if (item == null) continue;
             items.put(slot, item);
         }
         return items;
     }
+
+    /**
+     * Estimates the number of items the GUI keeps in memory. Used to
+     * report the memory retained by GUIs that are never collected.
+     *
+     * @return The estimated number of items
+     */
+    protected long estimateRetainedItems() {
+        long items = this.interactables.size();
+        for (final ItemStack item : this.rendered) {
+            // The inventory holds its own copy of every rendered item
+            if (item != null) items += this.released ? 1 : 2;
+        }
+        for (final GuiOverlay overlay : this.overlays.values()) items += overlay.inventory.getSize();
+        return items;
+    }
 }
@@ -0,0 +1,63 @@
+package com.github.conquestmc.epitomyui;
+
+import com.github.conquestmc.epitomyui.layers.Layer;
+import com.github.conquestmc.epitomyui.layers.LayerType;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The personal view of a single viewer of a shared {@link GuiBase}.
+ * It mirrors the shared contents, except for the slots that have
+ * an overlay item set.
+ */
+final class GuiOverlay {
+    final Inventory inventory;
+    final Layer interactables;
+
+    GuiOverlay(@Nonnull final Inventory inventory, @Nonnull final ItemStack[] contents) {
+        this.inventory = inventory;
+        this.interactables = new Layer(LayerType.OVERLAY, contents.length);
+        this.inventory.setContents(contents);
+    }
+
+    /**
+     * Writes a shared item to the overlay, unless the slot
+     * is covered by an overlay item.
+     *
+     * @param slot The slot to write to
+     * @param item The shared item
+     */
+    void mirror(@Nonnegative final int slot, @Nullable final ItemStack item) {
+        if (this.interactables.covers(slot)) return;
+        this.inventory.setItem(slot, item);
+    }
+
+    /**
+     * Writes all shared items to the overlay, keeping the
+     * overlay items in place.
+     *
+     * @param contents The shared contents
+     */
+    void mirror(@Nonnull final ItemStack[] contents) {
+        final ItemStack[] merged = contents.clone();
+        for (long mask = this.interactables.getMask(); mask != 0; mask &= mask - 1) {
+            final int slot = Long.numberOfTrailingZeros(mask);
+            merged[slot] = this.interactables.getItem(slot);
+        }
+        this.inventory.setContents(merged);
+    }
+
+    /**
+     * Re-renders all overlay items.
+     */
+    void update() {
+        for (long mask = this.interactables.getMask(); mask != 0; mask &= mask - 1) {
+            final int slot = Long.numberOfTrailingZeros(mask);
+            this.inventory.setItem(slot, this.interactables.getItem(slot));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.conquestmc.epitomyui;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.utils.SlotTable;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnull;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a configured GUI layout. Applying a
+ * template to a new GUI copies its contents in a single bulk write,
+ * instead of setting every item again.
+ * <p>
+ * The {@link ItemStack}s and {@link GuiInteractable}s of a template
+ * are shared by every GUI it is applied to. They should be replaced
+ * rather than modified, and click handlers should get their GUI from
+ * the event's inventory holder instead of capturing one. Interactables
+ * keeping state, like a {@link com.github.conquestmc.epitomyui.items.CyclingGuiItem},
+ * are copied for every GUI through {@link GuiInteractable#instantiate()}.
+ */
+public class GuiTemplate {
+    private final ItemStack[] contents;
+    private final SlotTable<GuiInteractable> interactables;
+
+    public GuiTemplate(@Nonnull final GuiBase gui) {
+        final int size = gui.rendered.length;
+        this.contents = new ItemStack[size];
+        for (int slot = 0; slot < size; slot++) {
+            final ItemStack item = gui.rendered[slot];
+            if (item != null) this.contents[slot] = item.clone();
+        }
+        this.interactables = new SlotTable<>(size);
+        this.interactables.copyFrom(gui.interactables);
+    }
+
+    /**
+     * Replaces the contents of the given GUI with the contents
+     * of the template.
+     *
+     * @param gui The GUI to apply the template to
+     */
+    public void applyTo(@Nonnull final GuiBase gui) {
+        if (gui.rendered.length != this.contents.length) {
+            throw new IllegalArgumentException("Template has " + this.contents.length + " slots, but the GUI has " + gui.rendered.length);
+        }
+        gui.load(this.contents, instantiate(this.interactables));
+    }
+
+    /**
+     * Gets the interactables to load into a GUI, copying those that
+     * keep state. An interactable set at several slots stays a single
+     * instance within the GUI.
+     *
+     * @param interactables The interactables of the template
+     * @return The interactables for the GUI
+     */
+    private static @Nonnull SlotTable<GuiInteractable> instantiate(@Nonnull final SlotTable<GuiInteractable> interactables) {
+        final SlotTable<GuiInteractable> instances = new SlotTable<>(interactables.capacity());
+        final Map<GuiInteractable, GuiInteractable> copies = new IdentityHashMap<>();
+        for (int slot = 0; slot < interactables.capacity(); slot++) {
+            final GuiInteractable item = interactables.get(slot);
+            if (item != null) instances.put(slot, copies.computeIfAbsent(item, GuiInteractable::instantiate));
+        }
+        return instances;
+    }
+
+    /**
+     * @return The number of slots in the template
+     */
+    public int getSize() {
+        return this.contents.length;
+    }
+}
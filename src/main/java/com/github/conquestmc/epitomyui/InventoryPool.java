@@ -0,0 +1,138 @@
+package com.github.conquestmc.epitomyui;
+
+import org.bukkit.event.inventory.InventoryType;
+import org.bukkit.inventory.Inventory;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reuses the inventories of closed GUIs for new GUIs with the same
+ * type, size and title. An inventory is returned to the pool once
+ * nobody views it anymore, and the GUI borrows a new one the next
+ * time it is opened. Only used from the main thread.
+ *
+ * @see UIProvider#setInventoryPool(InventoryPool)
+ */
+public class InventoryPool {
+    private final Map<Key, Deque<Inventory>> idle = new HashMap<>();
+    private final int maxIdlePerKey;
+    private final int maxIdle;
+    private int idleCount;
+    private long hits;
+    private long misses;
+    private long discarded;
+
+    /**
+     * @param maxIdlePerKey The maximum number of idle inventories kept for each type, size and title
+     * @param maxIdle The maximum number of idle inventories kept in total
+     */
+    public InventoryPool(@Nonnegative final int maxIdlePerKey, @Nonnegative final int maxIdle) {
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Borrows an idle inventory, or creates a new one if there is none.
+     *
+     * @param gui The GUI borrowing the inventory
+     * @param type The type of inventory, or null for a chest of the given size
+     * @param size The size of the inventory
+     * @param title The title of the inventory, or null for the default title
+     * @return The inventory
+     */
+    @Nonnull Inventory borrow(
+            @Nonnull final GuiBase gui,
+            @Nullable final InventoryType type,
+            @Nonnegative final int size,
+            @Nullable final String title
+    ) {
+        final Key key = new Key(type, size, title);
+        final Deque<Inventory> inventories = this.idle.get(key);
+        final Inventory pooled = inventories == null ? null : inventories.poll();
+        if (pooled != null) {
+            this.idleCount--;
+            this.hits++;
+            ((PooledHolder) pooled.getHolder(false)).setGui(gui);
+            return pooled;
+        }
+
+        this.misses++;
+        final PooledHolder holder = new PooledHolder(this, key);
+        final Inventory inventory = GuiBase.createInventory(holder, type, size, title);
+        holder.setInventory(inventory);
+        holder.setGui(gui);
+        return inventory;
+    }
+
+    /**
+     * Clears an inventory and returns it to the pool, unless the pool is full.
+     *
+     * @param inventory The inventory to return
+     */
+    void release(@Nonnull final Inventory inventory) {
+        if (!(inventory.getHolder(false) instanceof PooledHolder holder) || holder.getGui() == null) return;
+        holder.setGui(null);
+        inventory.clear();
+
+        final Deque<Inventory> inventories = this.idle.computeIfAbsent(holder.getKey(), key -> new ArrayDeque<>());
+        if (this.idleCount >= this.maxIdle || inventories.size() >= this.maxIdlePerKey) {
+            this.discarded++;
+            return;
+        }
+        inventories.push(inventory);
+        this.idleCount++;
+    }
+
+    /**
+     * Removes all idle inventories from the pool.
+     */
+    public void clear() {
+        this.idle.clear();
+        this.idleCount = 0;
+    }
+
+    /**
+     * @return The number of idle inventories in the pool
+     */
+    public int getIdleCount() {
+        return this.idleCount;
+    }
+
+    /**
+     * @return The number of inventories borrowed from the pool
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return The number of inventories created because the pool had none
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return The number of returned inventories dropped because the pool was full
+     */
+    public long getDiscarded() {
+        return this.discarded;
+    }
+
+    /**
+     * @return The fraction of borrows served from the pool, between 0 and 1
+     */
+    public double getHitRate() {
+        final long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+
+    record Key(@Nullable InventoryType type, int size, @Nullable String title) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.conquestmc.epitomyui;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The holder of an inventory created by an {@link InventoryPool}. The
+ * GUI it belongs to changes each time the inventory is borrowed.
+ */
+final class PooledHolder implements InventoryHolder {
+    private final InventoryPool pool;
+    private final InventoryPool.Key key;
+    private Inventory inventory;
+    private GuiBase gui;
+
+    PooledHolder(@Nonnull final InventoryPool pool, @Nonnull final InventoryPool.Key key) {
+        this.pool = pool;
+        this.key = key;
+    }
+
+    @Override
+    public @Nonnull Inventory getInventory() {
+        return this.inventory;
+    }
+
+    void setInventory(@Nonnull final Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    /**
+     * @return The GUI currently borrowing the inventory, or null if it is in the pool
+     */
+    @Nullable GuiBase getGui() {
+        return this.gui;
+    }
+
+    void setGui(@Nullable final GuiBase gui) {
+        this.gui = gui;
+    }
+
+    /**
+     * @return The pool the inventory belongs to
+     */
+    @Nonnull InventoryPool getPool() {
+        return this.pool;
+    }
+
+    /**
+     * @return The type, size and title the inventory is pooled under
+     */
+    @Nonnull InventoryPool.Key getKey() {
+        return this.key;
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.conquestmc.epitomyui;
+
+import com.github.conquestmc.epitomyui.utils.Logging;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+
+/**
+ * Removes the sessions of players that are gone or stopped viewing
+ * their GUI without a close event, and watches the GUIs released
+ * from sessions. Released GUIs are only weakly referenced, a GUI that
+ * is still reachable a full sweep after its release is reported as
+ * leaked, unless it is {@linkplain GuiBase#setRetained(boolean) retained}.
+ * All methods are called from the main thread.
+ */
+final class SessionLifecycle {
+    /**
+     * The number of ticks between sweeps.
+     */
+    static final int SWEEP_INTERVAL = 20 * 60;
+    /**
+     * A rough estimate of the heap used by one item and its meta.
+     */
+    private static final long ESTIMATED_ITEM_BYTES = 256;
+
+    private final SessionRegistry sessions;
+    private final Map<GuiBase, Integer> released = new WeakHashMap<>();
+    private final Set<UUID> idle = new HashSet<>();
+    private UIProvider.SessionStats stats = new UIProvider.SessionStats(0, 0, 0, 0);
+    private int sweeps;
+
+    SessionLifecycle(@Nonnull final SessionRegistry sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * Starts watching GUIs that were removed from a session, and
+     * discards the overlays the player had in them.
+     *
+     * @param uuid The UUID of the player the session belonged to
+     * @param guis The removed GUIs, or null if there were none
+     */
+    void release(@Nonnull final UUID uuid, @Nullable final Collection<GuiBase> guis) {
+        if (guis == null) return;
+        for (final GuiBase gui : guis) {
+            gui.removeOverlay(uuid);
+            if (!gui.isRetained()) this.released.put(gui, this.sweeps);
+        }
+    }
+
+    /**
+     * Removes stale sessions and counts the released GUIs that
+     * were not collected.
+     */
+    void sweep() {
+        int stale = 0;
+        for (final UUID uuid : this.sessions.getPlayers()) {
+            final Player player = Bukkit.getPlayer(uuid);
+            if (player != null && GuiBase.getGui(player.getOpenInventory().getTopInventory()) != null) {
+                this.idle.remove(uuid);
+                continue;
+            }
+
+            // Give online players a full interval to return, e.g. from an anvil opened by a GUI
+            if (player != null && this.idle.add(uuid)) continue;
+            this.idle.remove(uuid);
+            this.release(uuid, this.sessions.clear(uuid));
+            stale++;
+        }
+        this.idle.retainAll(this.sessions.getPlayers());
+
+        final Set<GuiBase> active = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Deque<GuiBase> stack : this.sessions.getStacks()) active.addAll(stack);
+
+        int leaked = 0;
+        long items = 0;
+        final Iterator<Map.Entry<GuiBase, Integer>> iterator = this.released.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<GuiBase, Integer> entry = iterator.next();
+            final GuiBase gui = entry.getKey();
+            if (gui == null) continue;
+            if (gui.isRetained() || active.contains(gui) || !gui.getViewers().isEmpty()) {
+                // Kept on purpose or opened again, it is no longer released
+                iterator.remove();
+                continue;
+            }
+            if (entry.getValue() == this.sweeps) continue;
+            leaked++;
+            items += gui.estimateRetainedItems();
+        }
+
+        final UIProvider.SessionStats previous = this.stats;
+        this.stats = new UIProvider.SessionStats(this.sessions.getPlayers().size(), stale, leaked, items * ESTIMATED_ITEM_BYTES);
+        this.sweeps++;
+        if (leaked > previous.leakedGuis()) {
+            Logging.LOGGER.log(
+                    Level.WARNING,
+                    "{0} closed GUIs are still reachable, retaining about {1} KB of items",
+                    new Object[] { leaked, this.stats.estimatedLeakedBytes() / 1024 }
+            );
+        }
+    }
+
+    /**
+     * @return The results of the last sweep
+     */
+    @Nonnull UIProvider.SessionStats getStats() {
+        return this.stats;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.conquestmc.epitomyui;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Keeps track of the GUIs each player has open. GUIs opened from
+ * another GUI are stacked on top of it, so the parent can be
+ * returned to later.
+ */
+final class SessionRegistry {
+    private final Map<UUID, Deque<GuiBase>> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Puts a GUI on top of the player's stack, moving it there
+     * if it is already on the stack.
+     *
+     * @param uuid The UUID of the player
+     * @param gui The GUI to push
+     */
+    void push(@Nonnull final UUID uuid, @Nonnull final GuiBase gui) {
+        this.sessions.compute(uuid, (id, stack) -> {
+            if (stack == null) stack = new ConcurrentLinkedDeque<>();
+            else stack.remove(gui);
+            stack.push(gui);
+            return stack;
+        });
+    }
+
+    /**
+     * @param uuid The UUID of the player
+     * @return The GUI on top of the player's stack, or null if there is none
+     */
+    @Nullable GuiBase peek(@Nonnull final UUID uuid) {
+        final Deque<GuiBase> stack = this.sessions.get(uuid);
+        return stack == null ? null : stack.peek();
+    }
+
+    /**
+     * Removes the GUI on top of the player's stack.
+     *
+     * @param uuid The UUID of the player
+     * @return The GUI below it, or null if there is none
+     */
+    @Nullable GuiBase pop(@Nonnull final UUID uuid) {
+        final Deque<GuiBase> stack = this.sessions.computeIfPresent(uuid, (id, current) -> {
+            current.poll();
+            return current.isEmpty() ? null : current;
+        });
+        return stack == null ? null : stack.peek();
+    }
+
+    /**
+     * Removes all GUIs of the player.
+     *
+     * @param uuid The UUID of the player
+     * @return The removed GUIs, top first, or null if there were none
+     */
+    @Nullable Deque<GuiBase> clear(@Nonnull final UUID uuid) {
+        return this.sessions.remove(uuid);
+    }
+
+    /**
+     * @return The UUIDs of all players with GUIs
+     */
+    @Nonnull Set<UUID> getPlayers() {
+        return this.sessions.keySet();
+    }
+
+    /**
+     * @return The GUI stacks of all players
+     */
+    @Nonnull Collection<Deque<GuiBase>> getStacks() {
+        return this.sessions.values();
+    }
+}
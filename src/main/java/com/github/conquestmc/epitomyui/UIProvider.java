@@ -1,7 +1,15 @@
 package com.github.conquestmc.epitomyui;
 
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
 import com.github.conquestmc.epitomyui.events.CyclingGuiItemStateChangeEvent;
 import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.jfr.GuiClickEvent;
+import com.github.conquestmc.epitomyui.jfr.GuiCloseEvent;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.metrics.GuiOperation;
+import com.github.conquestmc.epitomyui.utils.Threads;
+import com.github.conquestmc.epitomyui.utils.Logging;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -9,19 +17,63 @@ import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 
-import java.util.HashMap;
-import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.logging.Level;
 
 public class UIProvider implements Listener {
-    private static final Map<UUID, GuiBase> uis = new HashMap<>();
+    private static final SessionRegistry sessions = new SessionRegistry();
+    private static final SessionLifecycle lifecycle = new SessionLifecycle(sessions);
+    private static final List<GuiBase> pendingFlush = new ArrayList<>();
+    private static ClickLimiter clickLimiter;
+    private static InventoryPool inventoryPool;
+    private static Plugin owner;
+    private static boolean ownerResolved;
 
     @EventHandler
     public void onClose(InventoryCloseEvent event) {
         if (!(event.getPlayer() instanceof Player player)) return;
-        uis.remove(player.getUniqueId());
+        final GuiBase gui = GuiBase.getGui(event.getInventory());
+        if (gui == null) return;
+        gui.handleClose(player, event.getInventory(), event.getReason());
+
+        final GuiCloseEvent closeEvent = new GuiCloseEvent();
+        if (closeEvent.shouldCommit()) {
+            closeEvent.guiClass = gui.getClass().getName();
+            closeEvent.player = player.getName();
+            closeEvent.reason = event.getReason().name();
+            closeEvent.commit();
+        }
+
+        // Another inventory is being opened over this one, keep the GUI as its parent
+        if (event.getReason() == InventoryCloseEvent.Reason.OPEN_NEW) return;
+        this.forget(player.getUniqueId());
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        // Quitting from a non-GUI inventory opened from a GUI fires no close event for the GUI
+        this.forget(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        final Plugin plugin = getOwner();
+        if (plugin == null || event.getPlugin() != plugin) return;
+        closeAll();
+    }
+
+    private void forget(UUID uuid) {
+        lifecycle.release(uuid, sessions.clear(uuid));
+        if (clickLimiter != null) clickLimiter.forget(uuid);
     }
 
     @EventHandler
@@ -32,24 +84,158 @@ public class UIProvider implements Listener {
             return;
         }
 
-        final GuiBase gui = uis.get(player.getUniqueId());
+        final GuiBase gui = GuiBase.getGui(event.getInventory());
         if (gui == null) return;
 
+        final ClickLimiter limiter = clickLimiter;
+        if (limiter != null && !limiter.tryClick(player.getUniqueId(), event.getRawSlot())) {
+            event.setCancelled(true);
+            return;
+        }
+
+        final long start = GuiMetrics.start();
+        final GuiClickEvent clickEvent = new GuiClickEvent();
+        clickEvent.begin();
+        this.dispatchClick(event, player, gui);
+        GuiMetrics.record(gui.getClass(), GuiOperation.CLICK, start);
+        if (clickEvent.shouldCommit()) {
+            clickEvent.guiClass = gui.getClass().getName();
+            clickEvent.slot = event.getRawSlot();
+            clickEvent.cancelled = event.isCancelled();
+            clickEvent.commit();
+        }
+    }
+
+    private void dispatchClick(InventoryClickEvent event, Player player, GuiBase gui) {
         final boolean cancel = gui.onClick(event);
         if (cancel) event.setCancelled(true);
 
-        GuiInteractable item = gui.getInteractables().get(event.getRawSlot());
+        final int slot = event.getRawSlot();
+        GuiInteractable item = gui.getInteractable(player, slot);
         if (item == null) return;
         item.getClickEvent().accept(event);
 
-        final int slot = event.getRawSlot();
-        final ItemStack newStack = item.getItem();
-        final ItemStack currentStack = gui.getInventory().getItem(slot);
-        if (currentStack == null || currentStack.equals(newStack)) return;
-        gui.getInventory().setItem(slot, newStack);
+        // The click may have replaced the item, e.g. by scrolling
+        if (gui.getInteractable(player, slot) != item) return;
+        gui.refresh(player, slot);
+    }
+
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        Threads.drain();
+        if (event.getTickNumber() % SessionLifecycle.SWEEP_INTERVAL == 0) lifecycle.sweep();
+        if (pendingFlush.isEmpty()) return;
+        for (final GuiBase gui : pendingFlush) gui.flush();
+        pendingFlush.clear();
     }
 
     public static void registerUI(UUID uuid, GuiBase gui) {
-        uis.put(uuid, gui);
+        sessions.push(uuid, gui);
+    }
+
+    /**
+     * @param uuid The UUID of the player
+     * @return The GUI the player has open, or null if there is none
+     */
+    public static @Nullable GuiBase getUI(@Nonnull final UUID uuid) {
+        return sessions.peek(uuid);
+    }
+
+    /**
+     * Re-opens the GUI the player's current GUI was opened from.
+     *
+     * @param player The player to go back for
+     * @return True if there was a GUI to go back to, otherwise false
+     */
+    public static boolean openPrevious(@Nonnull final Player player) {
+        final GuiBase parent = sessions.pop(player.getUniqueId());
+        if (parent == null) return false;
+        parent.open(player);
+        return true;
+    }
+
+    /**
+     * Sets the limiter used to drop excessive clicks in GUIs.
+     *
+     * @param limiter The limiter to use, or null to allow all clicks
+     */
+    public static void setClickLimiter(@Nullable final ClickLimiter limiter) {
+        clickLimiter = limiter;
+    }
+
+    /**
+     * @return The limiter used to drop excessive clicks, or null if there is none
+     */
+    public static @Nullable ClickLimiter getClickLimiter() {
+        return clickLimiter;
+    }
+
+    /**
+     * Closes all open GUIs and removes all sessions. Called when the
+     * plugin the library is shaded into is disabled.
+     */
+    public static void closeAll() {
+        for (final UUID uuid : List.copyOf(sessions.getPlayers())) {
+            final Player player = Bukkit.getPlayer(uuid);
+            if (player != null && GuiBase.getGui(player.getOpenInventory().getTopInventory()) != null) {
+                player.closeInventory();
+            }
+            lifecycle.release(uuid, sessions.clear(uuid));
+            if (clickLimiter != null) clickLimiter.forget(uuid);
+        }
+        pendingFlush.clear();
+        if (inventoryPool != null) inventoryPool.clear();
+    }
+
+    /**
+     * Sets the pool new GUIs borrow their inventories from. Pooled
+     * inventories are not held by their GUI directly, so use
+     * {@link GuiBase#getGui(org.bukkit.inventory.Inventory)} to find
+     * the GUI of an inventory.
+     *
+     * @param pool The pool to use, or null to create a new inventory for every GUI
+     */
+    public static void setInventoryPool(@Nullable final InventoryPool pool) {
+        inventoryPool = pool;
+    }
+
+    /**
+     * @return The pool new GUIs borrow their inventories from, or null if there is none
+     */
+    public static @Nullable InventoryPool getInventoryPool() {
+        return inventoryPool;
+    }
+
+    /**
+     * @return The results of the last session sweep
+     */
+    public static @Nonnull SessionStats getSessionStats() {
+        return lifecycle.getStats();
+    }
+
+    static void scheduleFlush(GuiBase gui) {
+        pendingFlush.add(gui);
+    }
+
+    private static @Nullable Plugin getOwner() {
+        if (ownerResolved) return owner;
+        ownerResolved = true;
+        try {
+            owner = JavaPlugin.getProvidingPlugin(UIProvider.class);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Logging.LOGGER.log(Level.WARNING, "Could not find the plugin providing the library, call UIProvider.closeAll() when disabling", e);
+        }
+        return owner;
+    }
+
+    /**
+     * The results of a session sweep, which runs once a minute.
+     *
+     * @param sessions The number of players with GUI sessions
+     * @param staleSessions The number of sessions removed because the player left or stopped viewing a GUI
+     * @param leakedGuis The number of closed GUIs that are still reachable
+     * @param estimatedLeakedBytes A rough estimate of the memory retained by the items of leaked GUIs
+     */
+    public record SessionStats(int sessions, int staleSessions, int leakedGuis, long estimatedLeakedBytes) {
     }
 }
@@ -1,7 +1,10 @@
 package com.github.conquestmc.epitomyui.items;
 
+import com.github.conquestmc.epitomyui.GuiBase;
 import com.github.conquestmc.epitomyui.events.CyclingGuiItemStateChangeEvent;
 import com.github.conquestmc.epitomyui.exceptions.NonUniqueStateException;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.metrics.GuiOperation;
 import com.github.conquestmc.epitomyui.utils.Logging;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -21,6 +24,7 @@ import java.util.logging.Level;
 public class CyclingGuiItem extends GuiInteractable {
     private final HashMap<String, State> states;
     private State state;
+    private Consumer<InventoryClickEvent> onClick;
 
     public CyclingGuiItem() {
         this.states = new HashMap<>();
@@ -161,9 +165,26 @@ public class CyclingGuiItem extends GuiInteractable {
         }
     }
 
+    /**
+     * Creates an item with the same states and click handler, starting
+     * in the current state. The copy cycles independently of this item.
+     *
+     * @return The copy
+     */
+    @Override
+    public @Nonnull CyclingGuiItem instantiate() {
+        final CyclingGuiItem copy = new CyclingGuiItem();
+        for (final State state : this.states.values()) copy.addState(state);
+        if (this.state != null) copy.setState(this.state.getStateId());
+        if (this.onClick != null) copy.onClick(this.onClick);
+        return copy;
+    }
+
     @Override
     public void onClick(@Nonnull final Consumer<InventoryClickEvent> consumer) {
+        this.onClick = consumer;
         this.clickEvent = event -> {
+            final long start = GuiMetrics.start();
             State newState = this.getNextState();
             if (newState == null) newState = this.state;
 
@@ -175,6 +196,9 @@ public class CyclingGuiItem extends GuiInteractable {
             if (!changeEvent.isCancelled()) this.setState(changeEvent.getNewState());
 
             consumer.accept(event);
+
+            final GuiBase gui = GuiBase.getGui(event.getInventory());
+            GuiMetrics.record(gui == null ? CyclingGuiItem.class : gui.getClass(), GuiOperation.CYCLE, start);
         };
     }
 }
@@ -1,12 +1,22 @@
 package com.github.conquestmc.epitomyui.items;
 
+import com.github.conquestmc.epitomyui.GuiBase;
+import com.github.conquestmc.epitomyui.utils.Logging;
+import com.github.conquestmc.epitomyui.utils.Threads;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.inventory.ItemStack;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 public class GuiInteractable {
     protected ItemStack item;
@@ -37,6 +47,79 @@ public class GuiInteractable {
         this.clickEvent = consumer;
     }
 
+    /**
+     * Called when the item is clicked on, running the task off the
+     * main thread. See {@link #onClickAsync(Function, BiConsumer, Executor)}.
+     *
+     * @param task The work to run off the main thread
+     * @param completion Applies the result on the main thread
+     * @param <T> The type of result produced by the task
+     */
+    public <T> void onClickAsync(@Nonnull final Function<InventoryClickEvent, T> task, @Nonnull final BiConsumer<InventoryClickEvent, T> completion) {
+        this.onClickAsync(task, completion, Threads.ASYNC);
+    }
+
+    /**
+     * Called when the item is clicked on, running the task off the
+     * main thread. The click is cancelled straight away, and the item
+     * ignores further clicks of the same player in the GUI until the
+     * completion has run. The task may read the event, but must not
+     * modify it or touch the world. The completion runs on the main
+     * thread, after which the GUI is updated.
+     *
+     * @param task The work to run off the main thread
+     * @param completion Applies the result on the main thread
+     * @param executor The executor to run the task on
+     * @param <T> The type of result produced by the task
+     */
+    public <T> void onClickAsync(
+            @Nonnull final Function<InventoryClickEvent, T> task,
+            @Nonnull final BiConsumer<InventoryClickEvent, T> completion,
+            @Nonnull final Executor executor
+    ) {
+        this.clickEvent = event -> {
+            event.setCancelled(true);
+            final GuiBase gui = GuiBase.getGui(event.getInventory());
+            if (gui == null) return;
+            final UUID uuid = event.getWhoClicked().getUniqueId();
+            if (!gui.tryLock(uuid, this)) return;
+
+            final CompletableFuture<T> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> task.apply(event), executor);
+            } catch (RejectedExecutionException e) {
+                gui.unlock(uuid, this);
+                Logging.LOGGER.log(Level.SEVERE, "Could not start an async click handler", e);
+                return;
+            }
+            future.whenCompleteAsync((result, e) -> {
+                gui.unlock(uuid, this);
+                if (e != null) {
+                    Logging.LOGGER.log(Level.SEVERE, "Could not complete an async click handler", e);
+                    return;
+                }
+                // Nothing reads the future returned here, so failures have to be logged
+                try {
+                    completion.accept(event, result);
+                    gui.update();
+                } catch (RuntimeException completionError) {
+                    Logging.LOGGER.log(Level.SEVERE, "Could not apply the result of an async click handler", completionError);
+                }
+            }, Threads.MAIN);
+        };
+    }
+
+    /**
+     * Gets the interactable to use in a GUI created from a template.
+     * Interactables are shared by every GUI a template is applied to,
+     * so interactables keeping state per GUI should return a copy.
+     *
+     * @return A copy of the interactable if it keeps state, otherwise the interactable itself
+     */
+    public @Nonnull GuiInteractable instantiate() {
+        return this;
+    }
+
     /**
      * @return The {@link Consumer} to run on an {@link InventoryClickEvent}
      */
@@ -1,7 +1,7 @@
 package com.github.conquestmc.epitomyui.items;
 
+import com.github.conquestmc.epitomyui.utils.ComponentCache;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Material;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeModifier;
@@ -19,8 +19,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public class GuiItem extends GuiInteractable {
+    private ItemMeta editing;
+    private ItemStack beforeEdit;
 
     public GuiItem(@Nonnull final Material material) {
         this(new ItemStack(material));
@@ -34,22 +37,89 @@ public class GuiItem extends GuiInteractable {
         super(item);
     }
 
+    /**
+     * Applies several changes to the item at once. All changes made
+     * through this item inside the consumer share a single copy of
+     * the {@link ItemMeta}, which is written back once at the end.
+     * If the consumer throws, none of the changes are applied.
+     * <pre>{@code
+     * item.edit(edit -> {
+     *     edit.setName("<gold>Sword");
+     *     edit.addLore(Component.text("Sharp"));
+     *     edit.setUnbreakable(true);
+     * });
+     * }</pre>
+     *
+     * @param edits The changes to apply
+     */
+    public void edit(@Nonnull final Consumer<? super GuiItem> edits) {
+        if (this.editing != null) {
+            edits.accept(this);
+            return;
+        }
+        this.editing = this.item.getItemMeta();
+        boolean completed = false;
+        try {
+            edits.accept(this);
+            completed = true;
+        } finally {
+            final ItemMeta meta = this.editing;
+            final ItemStack original = this.beforeEdit;
+            this.editing = null;
+            this.beforeEdit = null;
+            if (completed) {
+                if (meta != null) this.item.setItemMeta(meta);
+            } else if (original != null) {
+                // The material was changed during the edit, which already wrote the meta
+                this.item.setType(original.getType());
+                this.item.setItemMeta(original.getItemMeta());
+            }
+        }
+    }
+
+    /**
+     * @return The {@link ItemMeta} being edited, or a new copy if no edit is in progress
+     */
+    private @Nullable ItemMeta getMeta() {
+        if (this.editing != null) return this.editing;
+        return this.item.getItemMeta();
+    }
+
+    /**
+     * Writes the meta back to the item, unless an edit is in progress.
+     *
+     * @param meta The meta to write
+     */
+    private void commitMeta(@Nonnull final ItemMeta meta) {
+        if (this.editing == null) this.item.setItemMeta(meta);
+    }
+
     /**
      * Sets the item material type.
      *
      * @param material The material to set
      */
     public void setMaterial(@Nonnull final Material material) {
+        if (this.editing == null) {
+            this.item.setType(material);
+            return;
+        }
+        // The meta type depends on the material, so write the pending changes first. The
+        // item is kept as it was before the edit, in case the edit fails.
+        if (this.beforeEdit == null) this.beforeEdit = this.item.clone();
+        this.item.setItemMeta(this.editing);
         this.item.setType(material);
+        this.editing = this.item.getItemMeta();
     }
 
     /**
-     * Sets the item display name.
+     * Sets the item display name. Parsed names are cached, see
+     * {@link ComponentCache}.
      *
-     * @param name The name to set
+     * @param name The name to set, in MiniMessage format
      */
     public void setName(@Nonnull final String name) {
-        final Component component = MiniMessage.miniMessage().deserialize(name);
+        final Component component = ComponentCache.parse(name);
         setName(component);
     }
 
@@ -59,10 +129,10 @@ public class GuiItem extends GuiInteractable {
      * @param name The name to set
      */
     public void setName(@Nonnull final Component name) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         meta.displayName(name);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 
     /**
@@ -80,10 +150,10 @@ public class GuiItem extends GuiInteractable {
      * @param lines The lines of lore to set
      */
     public void setLore(@Nullable final List<Component> lines) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         meta.lore(lines);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 
     /**
@@ -121,14 +191,14 @@ public class GuiItem extends GuiInteractable {
      * @param lines The lines to add
      */
     public void addLore(@Nonnegative int line, @Nonnull final List<Component> lines) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         List<Component> lore = meta.lore();
         if (lore == null) lore = new ArrayList<>();
-        if (line > lore.size() - 1) line = lore.size() - 1;
+        if (line > lore.size()) line = lore.size();
         lore.addAll(line, lines);
         meta.lore(lore);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 
     /**
@@ -155,11 +225,11 @@ public class GuiItem extends GuiInteractable {
      * @param durability The durability of the items
      */
     public void setDurability(@Nonnegative short durability) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (!(meta instanceof Damageable damageable)) return;
         if (durability > item.getType().getMaxDurability()) durability = item.getType().getMaxDurability();
         damageable.setDamage(durability);
-        item.setItemMeta(damageable);
+        commitMeta(damageable);
     }
 
     /**
@@ -177,10 +247,10 @@ public class GuiItem extends GuiInteractable {
      * @param flags The flags to hide
      */
     public void hideFlags(@Nonnull final ItemFlag... flags) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         meta.addItemFlags(flags);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 
     /**
@@ -189,9 +259,11 @@ public class GuiItem extends GuiInteractable {
      * @param enchantments The enchantments to apply
      */
     public void enchant(@Nonnull final Map<Enchantment, Integer> enchantments) {
-        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
-            enchant(entry.getKey(), entry.getValue());
-        }
+        edit(edit -> {
+            for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+                enchant(entry.getKey(), entry.getValue());
+            }
+        });
     }
 
     /**
@@ -202,10 +274,12 @@ public class GuiItem extends GuiInteractable {
      */
     public void enchant(@Nonnull final Enchantment enchantment, @Nonnegative final int level) {
         if (item.getType() == Material.ENCHANTED_BOOK) {
-            final EnchantmentStorageMeta meta = (EnchantmentStorageMeta) item.getItemMeta();
+            final EnchantmentStorageMeta meta = (EnchantmentStorageMeta) getMeta();
             if (meta == null) return;
             meta.addStoredEnchant(enchantment, level, true);
-            item.setItemMeta(meta);
+            commitMeta(meta);
+        } else if (this.editing != null) {
+            this.editing.addEnchant(enchantment, level, true);
         } else {
             item.addUnsafeEnchantment(enchantment, level);
         }
@@ -217,10 +291,10 @@ public class GuiItem extends GuiInteractable {
      * @param unbreakable Should the item be unbreakable or not
      */
     public void setUnbreakable(final boolean unbreakable) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         meta.setUnbreakable(unbreakable);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 
     /**
@@ -229,9 +303,11 @@ public class GuiItem extends GuiInteractable {
      * @param modifiers The modifiers to add
      */
     public void addAttributeModifiers(@Nonnull final Map<Attribute, AttributeModifier> modifiers) {
-        for (Map.Entry<Attribute, AttributeModifier> entry : modifiers.entrySet()) {
-            addAttributeModifier(entry.getKey(), entry.getValue());
-        }
+        edit(edit -> {
+            for (Map.Entry<Attribute, AttributeModifier> entry : modifiers.entrySet()) {
+                addAttributeModifier(entry.getKey(), entry.getValue());
+            }
+        });
     }
 
     /**
@@ -241,9 +317,9 @@ public class GuiItem extends GuiInteractable {
      * @param modifier The modifier to add
      */
     public void addAttributeModifier(@Nonnull final Attribute attribute, @Nonnull final AttributeModifier modifier) {
-        final ItemMeta meta = item.getItemMeta();
+        final ItemMeta meta = getMeta();
         if (meta == null) return;
         meta.addAttributeModifier(attribute, modifier);
-        item.setItemMeta(meta);
+        commitMeta(meta);
     }
 }
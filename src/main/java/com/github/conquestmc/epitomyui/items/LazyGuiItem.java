@@ -0,0 +1,61 @@
+package com.github.conquestmc.epitomyui.items;
+
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.function.Supplier;
+
+/**
+ * A {@link GuiInteractable} whose item is only built once it is
+ * rendered. Large GUIs can hold many of these while only building
+ * the items that are actually visible.
+ */
+public class LazyGuiItem extends GuiInteractable {
+    private final Supplier<? extends ItemStack> supplier;
+    private final boolean memoize;
+    private boolean materialized;
+
+    public LazyGuiItem(@Nonnull final Supplier<? extends ItemStack> supplier) {
+        this(supplier, true);
+    }
+
+    /**
+     * @param supplier Builds the item
+     * @param memoize Should the built item be kept until {@link #invalidate()}, or be rebuilt on every render
+     */
+    public LazyGuiItem(@Nonnull final Supplier<? extends ItemStack> supplier, final boolean memoize) {
+        super();
+        this.supplier = supplier;
+        this.memoize = memoize;
+    }
+
+    /**
+     * @return The {@link ItemStack} belonging to the {@link GuiInteractable}, built if needed
+     */
+    @Override
+    public @Nullable ItemStack getItem() {
+        if (!this.memoize) return this.supplier.get();
+        if (!this.materialized) {
+            this.item = this.supplier.get();
+            this.materialized = true;
+        }
+        return this.item;
+    }
+
+    /**
+     * Discards the built item, so it is built again the next
+     * time it is rendered.
+     */
+    public void invalidate() {
+        this.item = null;
+        this.materialized = false;
+    }
+
+    /**
+     * @return True if the item has been built and is kept, otherwise false
+     */
+    public boolean isMaterialized() {
+        return this.materialized;
+    }
+}
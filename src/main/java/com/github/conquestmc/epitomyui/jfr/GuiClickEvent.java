@@ -0,0 +1,26 @@
+package com.github.conquestmc.epitomyui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.github.conquestmc.epitomyui.GuiClick")
+@Label("GUI Click")
+@Description("A click dispatched to a GUI and its item handler")
+@Category("Epitomy UI")
+@Enabled(false)
+@StackTrace(false)
+public class GuiClickEvent extends Event {
+    @Label("GUI Class")
+    public String guiClass;
+
+    @Label("Slot")
+    public int slot;
+
+    @Label("Cancelled")
+    public boolean cancelled;
+}
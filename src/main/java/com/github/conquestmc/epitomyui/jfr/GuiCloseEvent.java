@@ -0,0 +1,26 @@
+package com.github.conquestmc.epitomyui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.github.conquestmc.epitomyui.GuiClose")
+@Label("GUI Close")
+@Description("A player closed a GUI")
+@Category("Epitomy UI")
+@Enabled(false)
+@StackTrace(false)
+public class GuiCloseEvent extends Event {
+    @Label("GUI Class")
+    public String guiClass;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Reason")
+    public String reason;
+}
@@ -0,0 +1,26 @@
+package com.github.conquestmc.epitomyui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.github.conquestmc.epitomyui.GuiOpen")
+@Label("GUI Open")
+@Description("A GUI was opened for a player")
+@Category("Epitomy UI")
+@Enabled(false)
+@StackTrace(false)
+public class GuiOpenEvent extends Event {
+    @Label("GUI Class")
+    public String guiClass;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Slots")
+    public int slots;
+}
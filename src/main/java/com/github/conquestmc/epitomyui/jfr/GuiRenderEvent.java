@@ -0,0 +1,24 @@
+package com.github.conquestmc.epitomyui.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.github.conquestmc.epitomyui.GuiRender")
+@Label("GUI Render")
+@Description("A render pass over the slots of a GUI")
+@Category("Epitomy UI")
+@Enabled(false)
+@StackTrace(false)
+public class GuiRenderEvent extends Event {
+    @Label("GUI Class")
+    public String guiClass;
+
+    @Label("Slots Written")
+    @Description("The number of slots that changed and were written to the inventory")
+    public int slotsWritten;
+}
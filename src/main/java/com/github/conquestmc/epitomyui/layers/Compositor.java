@@ -0,0 +1,90 @@
+package com.github.conquestmc.epitomyui.layers;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Stacks the {@link Layer}s of a GUI and resolves which layer each
+ * slot shows. Layers are created the first time they are requested.
+ */
+public class Compositor {
+    private final Layer[] layers = new Layer[LayerType.values().length];
+    private final int size;
+
+    public Compositor(@Nonnegative final int size) {
+        if (size > Long.SIZE) throw new IllegalArgumentException("Compositors cannot have more than 64 slots");
+        this.size = size;
+    }
+
+    /**
+     * @param type The type of layer to get
+     * @return The layer, created if it did not exist yet
+     */
+    public @Nonnull Layer getLayer(@Nonnull final LayerType type) {
+        Layer layer = this.layers[type.ordinal()];
+        if (layer == null) {
+            layer = new Layer(type, this.size);
+            this.layers[type.ordinal()] = layer;
+        }
+        return layer;
+    }
+
+    /**
+     * Gets the highest layer covering a slot.
+     *
+     * @param slot The slot to resolve
+     * @return The layer, or null if no layer covers the slot
+     */
+    public @Nullable Layer resolve(@Nonnegative final int slot) {
+        final long bit = 1L << slot;
+        for (int i = this.layers.length - 1; i >= 0; i--) {
+            final Layer layer = this.layers[i];
+            if (layer != null && (layer.getMask() & bit) != 0) return layer;
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the highest layer of every slot at once. Each layer
+     * only visits the slots it covers that no higher layer covers.
+     *
+     * @param resolved The array to write the layer of each slot to, null for uncovered slots
+     */
+    public void resolveAll(@Nonnull final Layer[] resolved) {
+        long covered = 0;
+        for (int i = this.layers.length - 1; i >= 0; i--) {
+            final Layer layer = this.layers[i];
+            if (layer == null) continue;
+            long visible = layer.getMask() & ~covered;
+            covered |= layer.getMask();
+            for (; visible != 0; visible &= visible - 1) resolved[Long.numberOfTrailingZeros(visible)] = layer;
+        }
+
+        long uncovered = ~covered & (this.size == Long.SIZE ? -1L : (1L << this.size) - 1);
+        for (; uncovered != 0; uncovered &= uncovered - 1) resolved[Long.numberOfTrailingZeros(uncovered)] = null;
+    }
+
+    /**
+     * Clears every layer.
+     */
+    public void clear() {
+        for (final Layer layer : this.layers) if (layer != null) layer.clear();
+    }
+
+    /**
+     * @return The mask of slots covered by any layer
+     */
+    public long getCoverage() {
+        long covered = 0;
+        for (final Layer layer : this.layers) if (layer != null) covered |= layer.getMask();
+        return covered;
+    }
+
+    /**
+     * @return The number of slots
+     */
+    public int size() {
+        return this.size;
+    }
+}
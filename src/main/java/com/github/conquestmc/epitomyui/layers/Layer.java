@@ -0,0 +1,208 @@
+package com.github.conquestmc.epitomyui.layers;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A single layer of GUI slots, holding interactables or plain items.
+ * The occupied slots are tracked in a bit mask, so a {@link Compositor}
+ * can find the top layer of every slot with a few bit operations.
+ * Layers hold at most 64 slots.
+ */
+public class Layer {
+    private final LayerType type;
+    private final Object[] cells;
+    private long mask;
+    private long hidden;
+    private int size;
+
+    public Layer(@Nonnull final LayerType type, @Nonnegative final int capacity) {
+        if (capacity > Long.SIZE) throw new IllegalArgumentException("Layers cannot have more than 64 slots");
+        this.type = type;
+        this.cells = new Object[capacity];
+    }
+
+    private Layer(@Nonnull final Layer other) {
+        this.type = other.type;
+        this.cells = other.cells.clone();
+        this.mask = other.mask;
+        this.hidden = other.hidden;
+        this.size = other.size;
+    }
+
+    /**
+     * Sets an interactable in the layer.
+     *
+     * @param slot The slot to set the interactable at
+     * @param item The interactable to set, or null to clear the slot
+     */
+    public void set(@Nonnegative final int slot, @Nullable final GuiInteractable item) {
+        this.setCell(slot, item);
+    }
+
+    /**
+     * Sets a plain item in the layer.
+     *
+     * @param slot The slot to set the item at
+     * @param item The item to set, or null to clear the slot
+     */
+    public void set(@Nonnegative final int slot, @Nullable final ItemStack item) {
+        this.setCell(slot, item == null || item.getType().isAir() ? null : item);
+    }
+
+    private void setCell(final int slot, @Nullable final Object cell) {
+        if (cell == null) {
+            this.remove(slot);
+            return;
+        }
+        if (this.cells[slot] == null) this.size++;
+        this.cells[slot] = cell;
+        this.mask |= 1L << slot;
+    }
+
+    /**
+     * Clears a slot of the layer.
+     *
+     * @param slot The slot to clear
+     * @return True if the slot was occupied, otherwise false
+     */
+    public boolean remove(@Nonnegative final int slot) {
+        if (slot >= this.cells.length || this.cells[slot] == null) return false;
+        this.cells[slot] = null;
+        this.mask &= ~(1L << slot);
+        this.size--;
+        return true;
+    }
+
+    /**
+     * @param slot The slot to get the interactable from
+     * @return The interactable at the slot, or null if it is empty or holds a plain item
+     */
+    public @Nullable GuiInteractable getInteractable(@Nonnegative final int slot) {
+        if (slot >= this.cells.length) return null;
+        return this.cells[slot] instanceof GuiInteractable interactable ? interactable : null;
+    }
+
+    /**
+     * @param slot The slot to get the item from
+     * @return The plain item at the slot, the item of the interactable at the slot, or null if it is empty
+     */
+    public @Nullable ItemStack getItem(@Nonnegative final int slot) {
+        if (slot >= this.cells.length) return null;
+        final Object cell = this.cells[slot];
+        if (cell instanceof GuiInteractable interactable) return interactable.getItem();
+        return (ItemStack) cell;
+    }
+
+    /**
+     * @param slot The slot to check
+     * @return True if the slot is occupied and not hidden, otherwise false
+     */
+    public boolean covers(@Nonnegative final int slot) {
+        return (this.getMask() >>> slot & 1) != 0;
+    }
+
+    /**
+     * @return The mask of slots that are occupied and not hidden
+     */
+    public long getMask() {
+        return this.mask & ~this.hidden;
+    }
+
+    /**
+     * @return The mask of occupied slots, including hidden ones
+     */
+    public long getOccupiedMask() {
+        return this.mask;
+    }
+
+    /**
+     * Hides slots of the layer without clearing them, so lower
+     * layers show through.
+     *
+     * @param hidden The mask of slots to hide
+     */
+    public void setHidden(final long hidden) {
+        this.hidden = hidden;
+    }
+
+    /**
+     * @return The mask of hidden slots
+     */
+    public long getHidden() {
+        return this.hidden;
+    }
+
+    /**
+     * Moves a range of slots within the layer. The ranges may overlap,
+     * slots moved away from are left as they were.
+     *
+     * @param from The first slot to move
+     * @param to The slot to move the first slot to
+     * @param length The number of slots to move
+     */
+    public void shift(@Nonnegative final int from, @Nonnegative final int to, @Nonnegative final int length) {
+        System.arraycopy(this.cells, from, this.cells, to, length);
+        this.recount();
+    }
+
+    /**
+     * Clears all slots of the layer.
+     */
+    public void clear() {
+        Arrays.fill(this.cells, null);
+        this.mask = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Replaces the contents of this layer with the contents of another.
+     * The hidden slots are kept.
+     *
+     * @param other The layer to copy from
+     */
+    public void copyFrom(@Nonnull final Layer other) {
+        final int length = Math.min(this.cells.length, other.cells.length);
+        Arrays.fill(this.cells, null);
+        System.arraycopy(other.cells, 0, this.cells, 0, length);
+        this.recount();
+    }
+
+    /**
+     * @return A copy of the layer, sharing its items
+     */
+    public @Nonnull Layer copy() {
+        return new Layer(this);
+    }
+
+    private void recount() {
+        this.mask = 0;
+        for (int slot = 0; slot < this.cells.length; slot++) {
+            if (this.cells[slot] != null) this.mask |= 1L << slot;
+        }
+        this.size = Long.bitCount(this.mask);
+    }
+
+    /**
+     * @return The number of occupied slots
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The number of slots in the layer
+     */
+    public int capacity() {
+        return this.cells.length;
+    }
+
+    public @Nonnull LayerType getType() {
+        return this.type;
+    }
+}
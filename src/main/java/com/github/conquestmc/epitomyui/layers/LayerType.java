@@ -0,0 +1,13 @@
+package com.github.conquestmc.epitomyui.layers;
+
+/**
+ * The layers of a GUI, from bottom to top. A slot shows the item of
+ * the highest layer that covers it.
+ */
+public enum LayerType {
+    BACKGROUND,
+    CONTENT,
+    STICKY,
+    HANDLERS,
+    OVERLAY;
+}
@@ -0,0 +1,134 @@
+package com.github.conquestmc.epitomyui.metrics;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts and times GUI operations, tagged by GUI class. Recording is
+ * cheap enough to stay enabled in production:
+ * <pre>{@code
+ * final long start = GuiMetrics.start();
+ * ...
+ * GuiMetrics.record(this.getClass(), GuiOperation.RENDER, start);
+ * }</pre>
+ */
+public class GuiMetrics {
+    private static final long DISABLED = Long.MIN_VALUE;
+    private static final Map<Class<?>, LatencyHistogram[]> registry = new ConcurrentHashMap<>();
+    private static final ClassValue<LatencyHistogram[]> histograms = new ClassValue<>() {
+        @Override
+        protected LatencyHistogram[] computeValue(@Nonnull final Class<?> type) {
+            final LatencyHistogram[] histograms = new LatencyHistogram[GuiOperation.values().length];
+            for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+            registry.put(type, histograms);
+            return histograms;
+        }
+    };
+    private static volatile boolean enabled = true;
+
+    /**
+     * @return A start timestamp to pass to {@link #record(Class, GuiOperation, long)}
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : DISABLED;
+    }
+
+    /**
+     * Records an operation that began at the given timestamp.
+     *
+     * @param type The class of GUI the operation ran on
+     * @param operation The operation that ran
+     * @param start The timestamp returned by {@link #start()}
+     */
+    public static void record(@Nonnull final Class<?> type, @Nonnull final GuiOperation operation, final long start) {
+        if (start == DISABLED) return;
+        histograms.get(type)[operation.ordinal()].record(System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the latency histogram of an operation on a class of GUI.
+     *
+     * @param type The class of GUI
+     * @param operation The operation
+     * @return The {@link LatencyHistogram}
+     */
+    public static @Nonnull LatencyHistogram getHistogram(@Nonnull final Class<?> type, @Nonnull final GuiOperation operation) {
+        return histograms.get(type)[operation.ordinal()];
+    }
+
+    /**
+     * @return A snapshot of every operation that has been recorded, sorted by GUI class and operation
+     */
+    public static @Nonnull List<Snapshot> snapshot() {
+        final List<Snapshot> snapshots = new ArrayList<>();
+        for (final Map.Entry<Class<?>, LatencyHistogram[]> entry : registry.entrySet()) {
+            for (final GuiOperation operation : GuiOperation.values()) {
+                final LatencyHistogram histogram = entry.getValue()[operation.ordinal()];
+                if (histogram.getCount() == 0) continue;
+                snapshots.add(new Snapshot(
+                        entry.getKey().getName(),
+                        operation,
+                        histogram.getCount(),
+                        histogram.getTotalNanos(),
+                        histogram.getPercentileNanos(50),
+                        histogram.getPercentileNanos(95),
+                        histogram.getPercentileNanos(99),
+                        histogram.getMaxNanos()
+                ));
+            }
+        }
+        snapshots.sort(Comparator.comparing(Snapshot::guiClass).thenComparing(Snapshot::operation));
+        return snapshots;
+    }
+
+    /**
+     * Clears all recorded metrics.
+     */
+    public static void reset() {
+        for (final LatencyHistogram[] histograms : registry.values()) {
+            for (final LatencyHistogram histogram : histograms) histogram.reset();
+        }
+    }
+
+    /**
+     * Sets whether operations are recorded.
+     *
+     * @param enabled Should operations be recorded or not
+     */
+    public static void setEnabled(final boolean enabled) {
+        GuiMetrics.enabled = enabled;
+    }
+
+    /**
+     * @return True if operations are recorded, otherwise false
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The recorded metrics of one operation on one class of GUI.
+     * Percentiles are estimated from power-of-two buckets.
+     */
+    public record Snapshot(
+            @Nonnull String guiClass,
+            @Nonnull GuiOperation operation,
+            long count,
+            long totalNanos,
+            long p50Nanos,
+            long p95Nanos,
+            long p99Nanos,
+            long maxNanos
+    ) {
+        /**
+         * @return The mean latency in nanoseconds
+         */
+        public long meanNanos() {
+            return this.count == 0 ? 0 : this.totalNanos / this.count;
+        }
+    }
+}
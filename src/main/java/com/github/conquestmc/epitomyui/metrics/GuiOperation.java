@@ -0,0 +1,10 @@
+package com.github.conquestmc.epitomyui.metrics;
+
+public enum GuiOperation {
+    OPEN,
+    RENDER,
+    SCROLL,
+    PAGE,
+    CLICK,
+    CYCLE;
+}
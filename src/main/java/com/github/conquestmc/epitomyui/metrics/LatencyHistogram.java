@@ -0,0 +1,97 @@
+package com.github.conquestmc.epitomyui.metrics;
+
+import javax.annotation.Nonnegative;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in power-of-two nanosecond buckets.
+ * Recording only increments counters and never allocates.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) this.buckets[i] = new LongAdder();
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(nanos, 0);
+        final int bucket = value == 0 ? 0 : 63 - Long.numberOfLeadingZeros(value);
+        this.buckets[bucket].increment();
+        this.count.increment();
+        this.total.add(value);
+        this.max.accumulate(value);
+    }
+
+    /**
+     * @return The number of recorded latencies
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * @return The sum of all recorded latencies in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.total.sum();
+    }
+
+    /**
+     * @return The highest recorded latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return this.max.get();
+    }
+
+    /**
+     * Estimates a percentile from the buckets. The result is the
+     * upper bound of the bucket containing the percentile.
+     *
+     * @param percentile The percentile to estimate, between 0 and 100
+     * @return The estimated latency in nanoseconds
+     */
+    public long getPercentileNanos(@Nonnegative final double percentile) {
+        final long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) return 0;
+
+        final long rank = (long) Math.ceil(count * Math.min(percentile, 100) / 100D);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen < rank) continue;
+            final long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            return Math.min(upperBound, this.getMaxNanos());
+        }
+        return this.getMaxNanos();
+    }
+
+    /**
+     * Clears all recorded latencies.
+     */
+    public void reset() {
+        for (final LongAdder bucket : this.buckets) bucket.reset();
+        this.count.reset();
+        this.total.reset();
+        this.max.reset();
+    }
+}
@@ -0,0 +1,6 @@
+package com.github.conquestmc.epitomyui.paginated;
+
+public enum PageDirection {
+    PREVIOUS,
+    NEXT;
+}
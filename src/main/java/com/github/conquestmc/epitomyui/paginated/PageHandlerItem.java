@@ -0,0 +1,32 @@
+package com.github.conquestmc.epitomyui.paginated;
+
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+public class PageHandlerItem extends GuiItem {
+    private final PageDirection direction;
+
+    public PageHandlerItem(@Nonnull final PageDirection direction, @Nonnull final Material material) {
+        this(direction, new ItemStack(material));
+    }
+
+    public PageHandlerItem(@Nonnull final PageDirection direction, @Nonnull final Material material, @Nonnegative final int amount) {
+        this(direction, new ItemStack(material, amount));
+    }
+
+    public PageHandlerItem(@Nonnull final PageDirection direction, @Nonnull final ItemStack item) {
+        super(item);
+        this.direction = direction;
+    }
+
+    /**
+     * @return The {@link PageDirection}
+     */
+    public @Nonnull PageDirection getPageDirection() {
+        return this.direction;
+    }
+}
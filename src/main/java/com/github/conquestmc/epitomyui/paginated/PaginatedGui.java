@@ -0,0 +1,428 @@
+package com.github.conquestmc.epitomyui.paginated;
+
+import com.github.conquestmc.epitomyui.GuiBase;
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.jfr.GuiRenderEvent;
+import com.github.conquestmc.epitomyui.layers.Compositor;
+import com.github.conquestmc.epitomyui.layers.Layer;
+import com.github.conquestmc.epitomyui.layers.LayerType;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.metrics.GuiOperation;
+import com.github.conquestmc.epitomyui.utils.GuiSerializer;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A GUI showing a list of entries one page at a time. Entries are laid
+ * into the content slots in order, all other slots hold static items
+ * and page handlers. Switching pages only touches the entries of the
+ * new page, so it is as fast for long lists as for short ones.
+ * <p>
+ * The items of recently shown pages are cached and written with a
+ * single bulk content update. Call {@link #invalidate()} or
+ * {@link #update()} after modifying the items of entries in place.
+ * Entries changed by their own click handler are picked up on their own.
+ */
+public abstract class PaginatedGui extends GuiBase {
+    /**
+     * The number of rendered pages kept by default.
+     */
+    public static final int DEFAULT_CACHED_PAGES = 8;
+    private final int[] contentSlots;
+    private final long contentMask;
+    private final Compositor compositor;
+    private final Layer stickyItems;
+    private final Layer handlers;
+    private final long[] handlerMasks;
+    private List<GuiInteractable> entries;
+    private Map<Integer, ItemStack[]> pageCache;
+    private int page;
+
+    /**
+     * @param title The title of the inventory
+     * @param rows The number of rows of the inventory
+     * @param contentSlots The slot string of the slots showing entries, e.g. "0-44"
+     */
+    public PaginatedGui(@Nullable final String title, @Nonnegative final int rows, @Nonnull final String contentSlots) {
+        super(title, rows);
+        long mask = 0;
+        for (final int slot : GuiSerializer.parseSlotString(contentSlots)) {
+            if (slot >= 0 && slot < this.rendered.length) mask |= 1L << slot;
+        }
+        if (mask == 0) throw new IllegalArgumentException("Paginated GUIs need at least one content slot in the inventory");
+
+        this.contentMask = mask;
+        this.contentSlots = new int[Long.bitCount(mask)];
+        int i = 0;
+        for (; mask != 0; mask &= mask - 1) this.contentSlots[i++] = Long.numberOfTrailingZeros(mask);
+
+        this.compositor = new Compositor(this.rendered.length);
+        this.stickyItems = this.compositor.getLayer(LayerType.STICKY);
+        this.handlers = this.compositor.getLayer(LayerType.HANDLERS);
+        this.handlerMasks = new long[PageDirection.values().length];
+        this.entries = new ArrayList<>();
+        this.setCachedPages(DEFAULT_CACHED_PAGES);
+    }
+
+    /**
+     * Re-renders the current page and all static items, picking
+     * up any changes made to the items of entries.
+     */
+    @Override
+    public void update() {
+        final long start = GuiMetrics.start();
+        final GuiRenderEvent event = new GuiRenderEvent();
+        event.begin();
+        final long writes = this.getWriteCount();
+
+        this.pageCache.remove(this.page);
+        this.renderStatic();
+        this.renderPage();
+        this.updateOverlays();
+        GuiMetrics.record(this.getClass(), GuiOperation.RENDER, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.slotsWritten = (int) (this.getWriteCount() - writes);
+            event.commit();
+        }
+    }
+
+    /**
+     * Shows the given page. Pages that were shown recently are written
+     * from the cache without building their items again.
+     *
+     * @param page The page to show, clamped to the existing pages
+     * @return True if the page changed, otherwise false
+     */
+    public boolean setPage(final int page) {
+        final int target = Math.max(0, Math.min(page, this.getPageCount() - 1));
+        if (target == this.page) return false;
+
+        final long start = GuiMetrics.start();
+        final GuiRenderEvent event = new GuiRenderEvent();
+        event.begin();
+        final long writes = this.getWriteCount();
+
+        this.page = target;
+        this.renderHandlers();
+        this.renderPage();
+        GuiMetrics.record(this.getClass(), GuiOperation.PAGE, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.slotsWritten = (int) (this.getWriteCount() - writes);
+            event.commit();
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the page changed, or false if this is the last page already
+     */
+    public boolean nextPage() {
+        return this.setPage(this.page + 1);
+    }
+
+    /**
+     * @return True if the page changed, or false if this is the first page already
+     */
+    public boolean previousPage() {
+        return this.setPage(this.page - 1);
+    }
+
+    /**
+     * @return The index of the page currently shown
+     */
+    public int getPage() {
+        return this.page;
+    }
+
+    /**
+     * @return The number of pages, at least one even if there are no entries
+     */
+    public int getPageCount() {
+        return Math.max(1, (this.entries.size() + this.contentSlots.length - 1) / this.contentSlots.length);
+    }
+
+    /**
+     * @return The number of entries shown on a single page
+     */
+    public int getPageSize() {
+        return this.contentSlots.length;
+    }
+
+    /**
+     * Replaces all entries of the GUI and shows the first page.
+     *
+     * @param entries The entries to show, in order
+     */
+    public void setEntries(@Nonnull final Collection<? extends GuiInteractable> entries) {
+        this.entries = new ArrayList<>(entries);
+        this.page = 0;
+        this.pageCache.clear();
+        this.renderHandlers();
+        this.renderPage();
+    }
+
+    /**
+     * Adds an entry to the end of the list.
+     *
+     * @param entry The entry to add
+     */
+    public void addEntry(@Nonnull final GuiInteractable entry) {
+        this.entries.add(entry);
+        this.changed(this.entries.size() - 1);
+    }
+
+    /**
+     * Replaces the entry at the given index.
+     *
+     * @param index The index of the entry to replace
+     * @param entry The entry to set
+     */
+    public void setEntry(@Nonnegative final int index, @Nonnull final GuiInteractable entry) {
+        this.entries.set(index, entry);
+        final int page = index / this.contentSlots.length;
+        this.pageCache.remove(page);
+        if (page == this.page) this.renderPage();
+    }
+
+    /**
+     * Removes the entry at the given index, moving all later
+     * entries forward.
+     *
+     * @param index The index of the entry to remove
+     * @return The removed entry
+     */
+    public @Nonnull GuiInteractable removeEntry(@Nonnegative final int index) {
+        final GuiInteractable entry = this.entries.remove(index);
+        this.changed(index);
+        return entry;
+    }
+
+    /**
+     * @return A read-only view of the entries of the GUI
+     */
+    public @Nonnull List<GuiInteractable> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * Drops all cached pages after the entry at the given index moved,
+     * and re-renders the current page if it was affected.
+     *
+     * @param index The index of the first entry that moved
+     */
+    private void changed(@Nonnegative final int index) {
+        final int first = index / this.contentSlots.length;
+        this.pageCache.keySet().removeIf(page -> page >= first);
+        final int previous = this.page;
+        if (this.page >= this.getPageCount()) this.page = this.getPageCount() - 1;
+        this.renderHandlers();
+        // A removed last page moves the view back to a page before the change
+        if (this.page != previous || this.page >= first) this.renderPage();
+    }
+
+    /**
+     * Drops all cached pages and re-renders the current one.
+     */
+    public void invalidate() {
+        this.pageCache.clear();
+        this.renderPage();
+    }
+
+    /**
+     * Drops a cached page, re-rendering it if it is shown.
+     *
+     * @param page The page to drop
+     */
+    public void invalidatePage(@Nonnegative final int page) {
+        this.pageCache.remove(page);
+        if (page == this.page) this.renderPage();
+    }
+
+    /**
+     * Sets the number of rendered pages kept in memory. Cached pages
+     * are dropped, least recently shown first, once there are more.
+     *
+     * @param cachedPages The number of pages to keep, at least one
+     */
+    public void setCachedPages(@Nonnegative final int cachedPages) {
+        final int capacity = Math.max(1, cachedPages);
+        this.pageCache = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, ItemStack[]> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Sets an item to switch pages in the given direction. The handler
+     * is hidden while there is no page to switch to.
+     *
+     * @param slot The inventory slot to set the handler at
+     * @param item The handler item
+     * @param direction The direction of the handler
+     */
+    public void setPageHandler(@Nonnegative final int slot, @Nonnull final ItemStack item, @Nonnull final PageDirection direction) {
+        this.setPageHandler(slot, new PageHandlerItem(direction, item));
+    }
+
+    /**
+     * Sets an item to switch pages in the given direction. The handler
+     * is hidden while there is no page to switch to.
+     *
+     * @param slot The inventory slot to set the handler at
+     * @param item The handler item
+     */
+    public void setPageHandler(@Nonnegative final int slot, @Nonnull final PageHandlerItem item) {
+        if (slot >= this.rendered.length) throw new IndexOutOfBoundsException("Page handler must have a slot in the inventory");
+        if (this.isContentSlot(slot)) throw new IllegalArgumentException("Page handlers cannot be set on content slots");
+
+        final PageDirection direction = item.getPageDirection();
+        item.onClick(event -> {
+            if (direction == PageDirection.NEXT) this.nextPage();
+            else this.previousPage();
+        });
+        this.handlers.set(slot, item);
+        for (int i = 0; i < this.handlerMasks.length; i++) this.handlerMasks[i] &= ~(1L << slot);
+        this.handlerMasks[direction.ordinal()] |= 1L << slot;
+        this.updateHandlerVisibility();
+        this.renderSlot(slot);
+    }
+
+    /**
+     * Sets an item in the GUI. Items set on a content slot replace
+     * the entry shown there, if there is one.
+     *
+     * @param slot The slot to set the item at
+     * @param item The item to set
+     */
+    @Override
+    public void setItem(@Nonnegative final int slot, @Nonnull final GuiInteractable item) {
+        if (slot >= this.rendered.length) return;
+        if (this.isContentSlot(slot)) {
+            final int index = this.getEntryIndex(slot);
+            if (index < this.entries.size()) this.setEntry(index, item);
+            return;
+        }
+        this.stickyItems.set(slot, item);
+        this.renderSlot(slot);
+    }
+
+    /**
+     * Sets an item in the GUI. Items set on a content slot replace
+     * the entry shown there, if there is one.
+     *
+     * @param slot The slot to set the item at
+     * @param item The item to set, or null to clear a static slot
+     */
+    public void setItem(@Nonnegative final int slot, @Nullable final ItemStack item) {
+        if (slot >= this.rendered.length) return;
+        if (this.isContentSlot(slot)) {
+            this.setItem(slot, new GuiItem(item));
+            return;
+        }
+        this.stickyItems.set(slot, item);
+        this.renderSlot(slot);
+    }
+
+    /**
+     * @param slot The slot to check
+     * @return True if the slot shows entries, otherwise false
+     */
+    public boolean isContentSlot(@Nonnegative final int slot) {
+        return slot < Long.SIZE && (this.contentMask >>> slot & 1) != 0;
+    }
+
+    /**
+     * @param slot The content slot to get the entry index of
+     * @return The index of the entry shown at the slot on the current page, or -1 if it is not a content slot
+     */
+    public int getEntryIndex(@Nonnegative final int slot) {
+        if (!this.isContentSlot(slot)) return -1;
+        final int position = Long.bitCount(this.contentMask & ((1L << slot) - 1));
+        return this.page * this.contentSlots.length + position;
+    }
+
+    /**
+     * Writes the current page to the content slots, building and
+     * caching its items if it is not cached yet.
+     */
+    private void renderPage() {
+        ItemStack[] items = this.pageCache.get(this.page);
+        if (items == null) {
+            items = this.buildPage(this.page);
+            this.pageCache.put(this.page, items);
+        }
+
+        final int offset = this.page * this.contentSlots.length;
+        for (int i = 0; i < this.contentSlots.length; i++) {
+            final int index = offset + i;
+            if (index < this.entries.size()) this.interactables.put(this.contentSlots[i], this.entries.get(index));
+            else this.interactables.remove(this.contentSlots[i]);
+        }
+        this.renderAll(this.contentSlots, items);
+    }
+
+    private @Nonnull ItemStack[] buildPage(@Nonnegative final int page) {
+        final ItemStack[] items = new ItemStack[this.contentSlots.length];
+        final int offset = page * this.contentSlots.length;
+        final int end = Math.min(this.entries.size() - offset, items.length);
+        for (int i = 0; i < end; i++) {
+            final ItemStack item = this.entries.get(offset + i).getItem();
+            // Cached items are shared with the render buffer, so they are copied once here
+            if (item != null && !item.getType().isAir()) items[i] = item.clone();
+        }
+        return items;
+    }
+
+    private void renderStatic() {
+        this.updateHandlerVisibility();
+        for (int slot = 0; slot < this.rendered.length; slot++) {
+            if (!this.isContentSlot(slot)) this.renderSlot(slot);
+        }
+    }
+
+    private void renderHandlers() {
+        this.updateHandlerVisibility();
+        for (long mask = this.handlers.getOccupiedMask(); mask != 0; mask &= mask - 1) {
+            this.renderSlot(Long.numberOfTrailingZeros(mask));
+        }
+    }
+
+    private void renderSlot(@Nonnegative final int slot) {
+        this.renderLayer(slot, this.compositor.resolve(slot));
+    }
+
+    /**
+     * Hides the page handlers that have no page to switch to.
+     */
+    private void updateHandlerVisibility() {
+        long hidden = 0;
+        if (this.page <= 0) hidden |= this.handlerMasks[PageDirection.PREVIOUS.ordinal()];
+        if (this.page >= this.getPageCount() - 1) hidden |= this.handlerMasks[PageDirection.NEXT.ordinal()];
+        this.handlers.setHidden(hidden);
+    }
+
+    @Override
+    protected void onRefresh(@Nonnegative final int slot) {
+        // The clicked entry may have changed its item, the cached copy would bring the old one back
+        if (this.isContentSlot(slot)) this.pageCache.remove(this.page);
+    }
+
+    @Override
+    protected long estimateRetainedItems() {
+        return super.estimateRetainedItems() + this.entries.size() + (long) this.pageCache.size() * this.contentSlots.length;
+    }
+}
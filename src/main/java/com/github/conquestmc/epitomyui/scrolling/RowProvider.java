@@ -0,0 +1,32 @@
+package com.github.conquestmc.epitomyui.scrolling;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Supplies the rows of a {@link ScrollingGui} on demand, so its content
+ * never has to be loaded all at once. Rows are prefetched off the main
+ * thread, so implementations must be thread-safe.
+ *
+ * @see ScrollingGui#setRowProvider(RowProvider, int)
+ */
+public interface RowProvider {
+    /**
+     * Gets the number of rows. The count is read when the provider is
+     * set, call {@link ScrollingGui#invalidateRows()} when it changes.
+     *
+     * @return The total number of rows
+     */
+    @Nonnegative int getRowCount();
+
+    /**
+     * Loads a single row.
+     *
+     * @param row The row to load
+     * @param columns The number of columns in the GUI
+     * @return The interactables of the row indexed by column, null entries are left empty
+     */
+    @Nonnull GuiInteractable[] loadRow(@Nonnegative int row, @Nonnegative int columns);
+}
@@ -0,0 +1,221 @@
+package com.github.conquestmc.epitomyui.scrolling;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.utils.ChunkedGrid;
+import org.bukkit.inventory.ItemStack;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The scrollable grid of a {@link ScrollingGui}. Content can be shared
+ * by any number of GUIs, each showing its own part of the grid with
+ * its own sticky items and scroll handlers. Changing a cell only
+ * refreshes the GUIs that currently show it.
+ * <p>
+ * Forked content shares its cells with the original until either is
+ * changed, so a private copy of a large grid is cheap to make.
+ */
+public class ScrollingContent {
+    private final ChunkedGrid<ItemStack> items;
+    private final ChunkedGrid<GuiInteractable> interactables;
+    private final Set<ScrollingGui> viewers;
+
+    /**
+     * @param rows The number of rows, at least 6
+     * @param columns The number of columns, at least 9
+     */
+    public ScrollingContent(@Nonnegative final int rows, @Nonnegative final int columns) {
+        this.items = new ChunkedGrid<>(Math.max(rows, 6), Math.max(columns, 9));
+        this.interactables = new ChunkedGrid<>(this.items.getRows(), this.items.getColumns());
+        this.viewers = Collections.newSetFromMap(new WeakHashMap<>());
+    }
+
+    private ScrollingContent(@Nonnull final ScrollingContent other) {
+        this.items = other.items.copy();
+        this.interactables = other.interactables.copy();
+        this.viewers = Collections.newSetFromMap(new WeakHashMap<>());
+    }
+
+    /**
+     * Gets the item of a cell. Cells holding an interactable
+     * have no plain item.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @return The plain item, or null if there is none
+     */
+    public @Nullable ItemStack getItem(@Nonnegative final int row, @Nonnegative final int column) {
+        return this.items.get(row, column);
+    }
+
+    /**
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @return The interactable of the cell, or null if there is none
+     */
+    public @Nullable GuiInteractable getInteractable(@Nonnegative final int row, @Nonnegative final int column) {
+        return this.interactables.get(row, column);
+    }
+
+    /**
+     * Checks if a cell holds an item or interactable.
+     *
+     * @param row The row to check
+     * @param column The column to check
+     * @return True if the cell is empty, otherwise false
+     */
+    public boolean isEmpty(@Nonnegative final int row, @Nonnegative final int column) {
+        return this.items.get(row, column) == null && this.interactables.get(row, column) == null;
+    }
+
+    /**
+     * Sets an interactable in a cell, refreshing the GUIs showing it.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @param item The interactable to set
+     */
+    public void setItem(@Nonnegative final int row, @Nonnegative final int column, @Nonnull final GuiInteractable item) {
+        this.items.set(row, column, null);
+        this.interactables.set(row, column, item);
+        this.refresh(row, column);
+    }
+
+    /**
+     * Sets a plain item in a cell, refreshing the GUIs showing it.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @param item The item to set, or null to clear the cell
+     */
+    public void setItem(@Nonnegative final int row, @Nonnegative final int column, @Nullable final ItemStack item) {
+        this.items.set(row, column, item);
+        this.interactables.set(row, column, null);
+        this.refresh(row, column);
+    }
+
+    /**
+     * Fills all cells with the given item.
+     *
+     * @param item The item to fill the grid with
+     */
+    public void fill(@Nonnull final GuiInteractable item) {
+        this.items.clear();
+        this.interactables.fill(item);
+        this.refreshAll();
+    }
+
+    /**
+     * Fills all cells with the given item.
+     *
+     * @param item The item to fill the grid with
+     */
+    public void fill(@Nullable final ItemStack item) {
+        this.items.fill(item);
+        this.refreshAll();
+    }
+
+    /**
+     * Fills all empty cells with the given item.
+     *
+     * @param item The item to fill empty cells with
+     */
+    public void fillEmpty(@Nonnull final GuiInteractable item) {
+        if (this.items.isEmpty() && this.interactables.isEmpty()) {
+            this.interactables.fill(item);
+        } else {
+            for (int row = 0; row < this.getRows(); row++) {
+                for (int column = 0; column < this.getColumns(); column++) {
+                    if (this.isEmpty(row, column)) this.interactables.set(row, column, item);
+                }
+            }
+        }
+        this.refreshAll();
+    }
+
+    /**
+     * Fills all empty cells with the given item.
+     *
+     * @param item The item to fill empty cells with
+     */
+    public void fillEmpty(@Nonnull final ItemStack item) {
+        if (this.items.isEmpty() && this.interactables.isEmpty()) {
+            this.items.fill(item);
+        } else {
+            for (int row = 0; row < this.getRows(); row++) {
+                for (int column = 0; column < this.getColumns(); column++) {
+                    if (this.isEmpty(row, column)) this.items.set(row, column, item);
+                }
+            }
+        }
+        this.refreshAll();
+    }
+
+    /**
+     * Replaces all cells with the cells of other content of the
+     * same size, refreshing every GUI showing this content.
+     *
+     * @param other The content to copy from
+     */
+    public void copyFrom(@Nonnull final ScrollingContent other) {
+        this.items.copyFrom(other.items);
+        this.interactables.copyFrom(other.interactables);
+        this.refreshAll();
+    }
+
+    /**
+     * Creates a private copy of the content, e.g. to change it for
+     * a single player. The copy shares its cells until either is
+     * changed, and starts without viewers.
+     *
+     * @return The copy
+     */
+    public @Nonnull ScrollingContent fork() {
+        return new ScrollingContent(this);
+    }
+
+    public int getRows() {
+        return this.items.getRows();
+    }
+
+    public int getColumns() {
+        return this.items.getColumns();
+    }
+
+    /**
+     * @return The number of cells holding an item or interactable, not counting fill values
+     */
+    public int size() {
+        return this.items.size() + this.interactables.size();
+    }
+
+    /**
+     * @return The number of GUIs showing the content
+     */
+    public int getViewerCount() {
+        return this.viewers.size();
+    }
+
+    void addViewer(@Nonnull final ScrollingGui gui) {
+        this.viewers.add(gui);
+    }
+
+    void removeViewer(@Nonnull final ScrollingGui gui) {
+        this.viewers.remove(gui);
+    }
+
+    private void refresh(final int row, final int column) {
+        // Rendering runs item code, which may add viewers or switch them to other content
+        for (final ScrollingGui viewer : List.copyOf(this.viewers)) viewer.refreshCell(row, column);
+    }
+
+    private void refreshAll() {
+        for (final ScrollingGui viewer : List.copyOf(this.viewers)) viewer.update();
+    }
+}
@@ -3,47 +3,95 @@ package com.github.conquestmc.epitomyui.scrolling;
 import com.github.conquestmc.epitomyui.GuiBase;
 import com.github.conquestmc.epitomyui.items.GuiInteractable;
 import com.github.conquestmc.epitomyui.items.GuiItem;
+import com.github.conquestmc.epitomyui.jfr.GuiRenderEvent;
+import com.github.conquestmc.epitomyui.layers.Compositor;
+import com.github.conquestmc.epitomyui.layers.Layer;
+import com.github.conquestmc.epitomyui.layers.LayerType;
+import com.github.conquestmc.epitomyui.metrics.GuiMetrics;
+import com.github.conquestmc.epitomyui.metrics.GuiOperation;
 import com.github.conquestmc.epitomyui.utils.Logging;
+import com.github.conquestmc.epitomyui.utils.Threads;
 import org.bukkit.inventory.ItemStack;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public abstract class ScrollingGui extends GuiBase {
     private static final Logger LOGGER = Logging.LOGGER;
-    private final ItemStack[][] items;
-    private final Map<Integer, ScrollHandlerItem> handlers;
-    private final Map<Integer, GuiInteractable> interactablesStore;
-    private final Map<Integer, GuiInteractable> stickyItems;
-    private final int maxRow;
+    private static final GuiInteractable[] EMPTY_ROW = new GuiInteractable[0];
+    /**
+     * The number of rows prefetched ahead of the view.
+     */
+    private static final int PREFETCH_ROWS = 6;
+    private ScrollingContent content;
+    private final Compositor compositor;
+    private final Layer visibleCells;
+    private final Layer stickyItems;
+    private final Layer handlers;
+    private final long[] handlerMasks;
+    private final Layer[] resolved;
+    private boolean viewFetched;
+    private final Set<Integer> loadingRows;
+    private RowProvider rowProvider;
+    private Map<Integer, GuiInteractable[]> rowCache;
+    private int providerVersion;
+    private int providedRows;
+    private int maxRow;
     private final int maxColumn;
     private int row;
     private int column;
 
     public ScrollingGui(
             @Nullable final String title,
-            @Nonnegative int rows,
-            @Nonnegative int columns,
+            @Nonnegative final int rows,
+            @Nonnegative final int columns,
+            @Nonnegative final int rowStart,
+            @Nonnegative final int columnStart
+    ) {
+        this(title, new ScrollingContent(rows, columns), rowStart, columnStart);
+    }
+
+    /**
+     * Creates a GUI showing content that may be shared with other
+     * GUIs. Each GUI keeps its own position, sticky items and
+     * scroll handlers.
+     *
+     * @param title The title of the inventory
+     * @param content The content to show
+     * @param rowStart The row to start at
+     * @param columnStart The column to start at
+     */
+    public ScrollingGui(
+            @Nullable final String title,
+            @Nonnull final ScrollingContent content,
             @Nonnegative final int rowStart,
             @Nonnegative final int columnStart
     ) {
         super(title, 6);
-        if (rows < 6) rows = 6;
-        if (columns < 9) columns = 9;
-        this.items = new ItemStack[rows][columns];
-        this.handlers = new HashMap<>(54);
-        this.interactablesStore = new HashMap<>(rows * columns);
-        this.stickyItems = new HashMap<>(54);
+        final int rows = content.getRows();
+        final int columns = content.getColumns();
+        this.content = content;
+        this.compositor = new Compositor(54);
+        this.visibleCells = this.compositor.getLayer(LayerType.CONTENT);
+        this.stickyItems = this.compositor.getLayer(LayerType.STICKY);
+        this.handlers = this.compositor.getLayer(LayerType.HANDLERS);
+        this.handlerMasks = new long[ScrollDirection.values().length];
+        this.resolved = new Layer[54];
+        this.loadingRows = new HashSet<>();
         this.maxRow = rows - 6;
         this.maxColumn = columns - 9;
         this.row = rowStart > maxRow ? maxRow : rowStart;
         this.column = columnStart > maxColumn ? maxColumn : columnStart;
+        content.addViewer(this);
     }
 
     /**
@@ -52,39 +100,157 @@ public abstract class ScrollingGui extends GuiBase {
      */
     @Override
     public void update() {
-        this.interactables.clear();
+        final long start = GuiMetrics.start();
+        final GuiRenderEvent event = new GuiRenderEvent();
+        event.begin();
+        final long writes = this.getWriteCount();
 
         int contextSlot = -1;
         for (int row = this.row; row < this.row + 6; row++) {
-            ItemStack[] items = this.items[row];
             for (int column = this.column; column < this.column + 9; column++) {
-                contextSlot++;
-
-                GuiInteractable interactable = null;
-                if (this.handlers.containsKey(contextSlot)) {
-                    ScrollHandlerItem handler = this.handlers.get(contextSlot);
-                    switch (handler.getScrollDirection()) {
-                        case UP -> { if (this.row != 0) interactable = handler; }
-                        case DOWN -> { if (this.row != this.maxRow) interactable = handler; }
-                        case LEFT -> { if (this.column != 0) interactable = handler; }
-                        case RIGHT -> { if (this.column != this.maxColumn) interactable = handler; }
-                    }
-                } else if (this.stickyItems.containsKey(contextSlot)) {
-                    interactable = this.stickyItems.get(contextSlot);
-                } else {
-                    final int slot = getSlot(row, column);
-                    interactable = this.interactablesStore.get(slot);
-                }
+                this.fetchCell(++contextSlot, row, column);
+            }
+        }
+        this.viewFetched = true;
+        this.renderView();
+        this.updateOverlays();
+        GuiMetrics.record(this.getClass(), GuiOperation.RENDER, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.slotsWritten = (int) (this.getWriteCount() - writes);
+            event.commit();
+        }
+    }
 
-                if (interactable == null) {
-                    ItemStack item = items[column];
-                    this.inventory.setItem(contextSlot, item);
-                } else {
-                    this.interactables.put(contextSlot, interactable);
-                    this.inventory.setItem(contextSlot, interactable.getItem());
+    /**
+     * Scrolls the view by one row or column. Cells that stay in view
+     * are shifted rather than looked up again, only the newly exposed
+     * row or column is fetched from the grid. Only slots whose item
+     * changed are sent to the inventory.
+     *
+     * @param direction The direction to scroll in
+     * @return True if the view moved, or false if it is at the edge already
+     */
+    public boolean scroll(@Nonnull final ScrollDirection direction) {
+        switch (direction) {
+            case UP -> { if (this.row <= 0) return false; }
+            case DOWN -> { if (this.row >= this.maxRow) return false; }
+            case LEFT -> { if (this.column <= 0) return false; }
+            case RIGHT -> { if (this.column >= this.maxColumn) return false; }
+        }
+        if (!this.viewFetched) {
+            // Nothing to shift yet
+            switch (direction) {
+                case UP -> this.row--;
+                case DOWN -> this.row++;
+                case LEFT -> this.column--;
+                case RIGHT -> this.column++;
+            }
+            this.update();
+            return true;
+        }
+
+        final long start = GuiMetrics.start();
+        final GuiRenderEvent event = new GuiRenderEvent();
+        event.begin();
+        final long writes = this.getWriteCount();
+        switch (direction) {
+            case UP -> {
+                this.row--;
+                this.shift(0, 9, 45);
+                for (int i = 0; i < 9; i++) this.fetchCell(i, this.row, this.column + i);
+            }
+            case DOWN -> {
+                this.row++;
+                this.shift(9, 0, 45);
+                for (int i = 0; i < 9; i++) this.fetchCell(45 + i, this.row + 5, this.column + i);
+            }
+            case LEFT -> {
+                this.column--;
+                for (int i = 0; i < 6; i++) {
+                    this.shift(i * 9, i * 9 + 1, 8);
+                    this.fetchCell(i * 9, this.row + i, this.column);
                 }
             }
+            case RIGHT -> {
+                this.column++;
+                for (int i = 0; i < 6; i++) {
+                    this.shift(i * 9 + 1, i * 9, 8);
+                    this.fetchCell(i * 9 + 8, this.row + i, this.column + 8);
+                }
+            }
+        }
+        this.renderView();
+        if (direction == ScrollDirection.UP || direction == ScrollDirection.DOWN) this.prefetch(direction);
+        GuiMetrics.record(this.getClass(), GuiOperation.SCROLL, start);
+        if (event.shouldCommit()) {
+            event.guiClass = this.getClass().getName();
+            event.slotsWritten = (int) (this.getWriteCount() - writes);
+            event.commit();
+        }
+        return true;
+    }
+
+    private void shift(final int from, final int to, final int length) {
+        this.visibleCells.shift(from, to, length);
+    }
+
+    /**
+     * Looks up the grid cell shown at a context slot.
+     *
+     * @param contextSlot The context slot (0 - 53) showing the cell
+     * @param row The row of the cell
+     * @param column The column of the cell
+     */
+    private void fetchCell(@Nonnegative final int contextSlot, @Nonnegative final int row, @Nonnegative final int column) {
+        if (this.rowProvider != null) {
+            final GuiInteractable[] cells = this.getProvidedRow(row);
+            this.visibleCells.set(contextSlot, column < cells.length ? cells[column] : null);
+            return;
         }
+        final GuiInteractable interactable = this.content.getInteractable(row, column);
+        if (interactable != null) this.visibleCells.set(contextSlot, interactable);
+        else this.visibleCells.set(contextSlot, this.content.getItem(row, column));
+    }
+
+    /**
+     * Renders all slots from the layers. Items are only built here,
+     * so interactables outside the view are never materialized.
+     */
+    private void renderView() {
+        this.updateHandlerVisibility();
+        this.compositor.resolveAll(this.resolved);
+        for (int contextSlot = 0; contextSlot < 54; contextSlot++) this.renderLayer(contextSlot, this.resolved[contextSlot]);
+    }
+
+    private void renderSlot(@Nonnegative final int contextSlot) {
+        this.renderLayer(contextSlot, this.compositor.resolve(contextSlot));
+    }
+
+    /**
+     * Hides the scroll handlers that cannot scroll any further.
+     */
+    private void updateHandlerVisibility() {
+        long hidden = 0;
+        if (this.row <= 0) hidden |= this.handlerMasks[ScrollDirection.UP.ordinal()];
+        if (this.row >= this.maxRow) hidden |= this.handlerMasks[ScrollDirection.DOWN.ordinal()];
+        if (this.column <= 0) hidden |= this.handlerMasks[ScrollDirection.LEFT.ordinal()];
+        if (this.column >= this.maxColumn) hidden |= this.handlerMasks[ScrollDirection.RIGHT.ordinal()];
+        this.handlers.setHidden(hidden);
+    }
+
+    /**
+     * Re-renders a cell of the content if it is in view. Called by the
+     * {@link ScrollingContent} after the cell changed.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     */
+    void refreshCell(@Nonnegative final int row, @Nonnegative final int column) {
+        if (this.rowProvider != null || !this.isVisible(row, column)) return;
+        final int contextSlot = this.getContextSlotFrom(row, column);
+        this.fetchCell(contextSlot, row, column);
+        this.renderSlot(contextSlot);
     }
 
     /**
@@ -140,15 +306,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @param item The item to fill the scroll GUI with
      */
     public void fill(@Nonnull final GuiInteractable item) {
-        for (int row = 0; row < this.items.length; row++) {
-            ItemStack[] items = this.items[row];
-            for (int column = 0; column < items.length; column++) {
-                items[column] = item.getItem();
-                final int slot = getSlot(row, column);
-                this.interactablesStore.put(slot, item);
-            }
-        }
-        this.update();
+        this.content.fill(item);
     }
 
     /**
@@ -157,10 +315,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @param item The item to fill the scroll GUI with
      */
     public void fill(@Nullable final ItemStack item) {
-        for (ItemStack[] row : this.items) {
-            Arrays.fill(row, item);
-        }
-        this.update();
+        this.content.fill(item);
     }
 
     /**
@@ -169,16 +324,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @param item The item to fill empty slots with
      */
     public void fillEmpty(@Nonnull final GuiInteractable item) {
-        for (int row = 0; row < this.items.length; row++) {
-            ItemStack[] items = this.items[row];
-            for (int column = 0; column < items.length; column++) {
-                if (items[column] != null) continue;
-                final int slot = getSlot(row, column);
-                this.interactablesStore.put(slot, item);
-                items[column] = item.getItem();
-            }
-        }
-        this.update();
+        this.content.fillEmpty(item);
     }
 
     /**
@@ -187,13 +333,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @param item The item to fill empty slots with
      */
     public void fillEmpty(@Nonnull final ItemStack item) {
-        for (ItemStack[] row : this.items) {
-            for (int column = 0; column < row.length; column++) {
-                if (row[column] != null) continue;
-                row[column] = item;
-            }
-        }
-        this.update();
+        this.content.fillEmpty(item);
     }
 
     /**
@@ -216,32 +356,13 @@ public abstract class ScrollingGui extends GuiBase {
     public void setScrollHandler(@Nonnegative final int slot, @Nonnull final ScrollHandlerItem item) {
         if (slot > 53) throw new IndexOutOfBoundsException("Scroll handler must have a slot between 0 and 53");
 
-        switch (item.getScrollDirection()) {
-            case UP -> item.onClick(event -> {
-                if (row <= 0) return;
-                this.row--;
-                this.update();
-            });
-            case DOWN -> item.onClick(event -> {
-                if (row >= maxRow) return;
-                this.row++;
-                this.update();
-            });
-            case LEFT -> item.onClick(event -> {
-                if (column <= 0) return;
-                column--;
-                this.update();
-            });
-            case RIGHT -> item.onClick(event -> {
-                if (column >= maxColumn) return;
-                column++;
-                this.update();
-            });
-        }
-
-        this.handlers.put(slot, item);
-        this.interactables.put(slot, item);
-        this.inventory.setItem(slot, item.getItem());
+        final ScrollDirection direction = item.getScrollDirection();
+        item.onClick(event -> this.scroll(direction));
+        this.handlers.set(slot, item);
+        for (int i = 0; i < this.handlerMasks.length; i++) this.handlerMasks[i] &= ~(1L << slot);
+        this.handlerMasks[direction.ordinal()] |= 1L << slot;
+        this.updateHandlerVisibility();
+        this.renderSlot(slot);
     }
 
     /**
@@ -263,7 +384,7 @@ public abstract class ScrollingGui extends GuiBase {
     public void setStickyItem(@Nonnegative final int slot, @Nonnull final GuiInteractable item) {
         try {
             if (slot > 53) throw new IndexOutOfBoundsException("Sticky items must have a slot between 0 and 53");
-            this.stickyItems.put(slot, item);
+            this.stickyItems.set(slot, item);
             this.update();
         } catch (IndexOutOfBoundsException e) {
             LOGGER.log(Level.SEVERE, "Could not a stick item to the ScrollingGui", e);
@@ -289,14 +410,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @param item The item to set
      */
     public void setItem(@Nonnegative final int row, @Nonnegative final int column, @Nonnull final GuiInteractable item) {
-        this.setItem(row, column, item.getItem());
-        if (this.isVisible(row, column)) {
-            final int slot = getContextSlotFrom(row, column);
-            this.interactables.put(slot, item);
-        } else {
-            final int slot = getSlot(row, column);
-            this.interactablesStore.put(slot, item);
-        }
+        this.content.setItem(row, column, item);
     }
 
     /**
@@ -310,17 +424,179 @@ public abstract class ScrollingGui extends GuiBase {
     }
 
     public void setItem(@Nonnegative final int row, @Nonnegative final int column, @Nullable final ItemStack item) {
-        this.items[row][column] = item;
-        if (!this.isVisible(row, column)) return;
-        final int slot = this.getContextSlotFrom(row, column);
-        this.inventory.setItem(slot, item);
+        this.content.setItem(row, column, item);
+    }
+
+    /**
+     * Replaces the scrollable content and sticky items of the GUI.
+     * Items and interactables are shared rather than copied.
+     *
+     * @param content The content to copy
+     * @param stickyItems The sticky items to set
+     */
+    void load(@Nonnull final ScrollingContent content, @Nonnull final Layer stickyItems) {
+        this.stickyItems.copyFrom(stickyItems);
+        this.content.copyFrom(content);
+    }
+
+    /**
+     * @return The content shown by the GUI, which may be shared with other GUIs
+     */
+    public @Nonnull ScrollingContent getContent() {
+        return this.content;
+    }
+
+    /**
+     * Shows other content in the GUI, keeping its position where
+     * possible. The content must have the same number of columns.
+     *
+     * @param content The content to show
+     */
+    public void setContent(@Nonnull final ScrollingContent content) {
+        if (content.getColumns() != this.maxColumn + 9) {
+            throw new IllegalArgumentException("Content has " + content.getColumns() + " columns, but the GUI has " + (this.maxColumn + 9));
+        }
+        this.content.removeViewer(this);
+        this.content = content;
+        content.addViewer(this);
+        if (this.rowProvider == null) this.setMaxRow(content.getRows());
+        this.update();
+    }
+
+    @Nonnull Layer getStickyItems() {
+        return this.stickyItems;
+    }
+
+    @Nonnull Layer getHandlers() {
+        return this.handlers;
+    }
+
+    /**
+     * Shows rows from a provider instead of the items set in the GUI.
+     * Only the rows in view are loaded, and the most recently used
+     * rows are kept in memory. Rows in the direction the player is
+     * scrolling are loaded ahead of time on {@link Threads#ASYNC}.
+     * Items set in the GUI are kept, but not shown while a provider is set.
+     *
+     * @param provider The provider to load rows from, or null to show the items set in the GUI again
+     * @param cachedRows The maximum number of loaded rows to keep in memory
+     */
+    public void setRowProvider(@Nullable final RowProvider provider, @Nonnegative final int cachedRows) {
+        this.rowProvider = provider;
+        this.providerVersion++;
+        this.loadingRows.clear();
+        if (provider == null) {
+            this.rowCache = null;
+            this.setMaxRow(this.content.getRows());
+        } else {
+            // The cache must hold the view and the rows prefetched around it
+            final int capacity = Math.max(cachedRows, 6 + PREFETCH_ROWS * 2);
+            this.rowCache = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Integer, GuiInteractable[]> eldest) {
+                    return this.size() > capacity;
+                }
+            };
+            this.providedRows = provider.getRowCount();
+            this.setMaxRow(this.providedRows);
+        }
+        this.update();
+        if (provider != null) this.prefetch(ScrollDirection.DOWN);
+    }
+
+    /**
+     * Drops all loaded rows and reloads the visible ones, e.g. after
+     * the provider's data changed. Also picks up a changed row count.
+     */
+    public void invalidateRows() {
+        if (this.rowProvider == null) return;
+        this.providerVersion++;
+        this.loadingRows.clear();
+        this.rowCache.clear();
+        this.providedRows = this.rowProvider.getRowCount();
+        this.setMaxRow(this.providedRows);
+        this.update();
+    }
+
+    /**
+     * @return The provider rows are loaded from, or null if the GUI shows its own items
+     */
+    public @Nullable RowProvider getRowProvider() {
+        return this.rowProvider;
+    }
+
+    private void setMaxRow(@Nonnegative final int rows) {
+        this.maxRow = Math.max(rows, 6) - 6;
+        if (this.row > this.maxRow) this.row = this.maxRow;
+    }
+
+    /**
+     * Gets a row from the cache, loading it on the main thread if it
+     * was not prefetched. Rows past the row count read when the provider
+     * was set or invalidated are empty.
+     *
+     * @param row The row to get
+     * @return The interactables of the row
+     */
+    private @Nonnull GuiInteractable[] getProvidedRow(@Nonnegative final int row) {
+        if (row >= this.providedRows) return EMPTY_ROW;
+        GuiInteractable[] cells = this.rowCache.get(row);
+        if (cells == null) {
+            cells = this.rowProvider.loadRow(row, this.maxColumn + 9);
+            this.rowCache.put(row, cells);
+        }
+        return cells;
+    }
+
+    /**
+     * Loads the rows past the view in the given direction in the background.
+     *
+     * @param direction The direction the player is scrolling in
+     */
+    private void prefetch(@Nonnull final ScrollDirection direction) {
+        final RowProvider provider = this.rowProvider;
+        if (provider == null) return;
+        final int first = direction == ScrollDirection.DOWN ? this.row + 6 : this.row - PREFETCH_ROWS;
+        final int[] rows = new int[PREFETCH_ROWS];
+        int count = 0;
+        for (int row = Math.max(first, 0); row < Math.min(first + PREFETCH_ROWS, this.providedRows); row++) {
+            if (this.rowCache.containsKey(row) || !this.loadingRows.add(row)) continue;
+            rows[count++] = row;
+        }
+        if (count == 0) return;
+
+        final int version = this.providerVersion;
+        final int loaded = count;
+        final int columns = this.maxColumn + 9;
+        final CompletableFuture<GuiInteractable[][]> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> {
+                final GuiInteractable[][] cells = new GuiInteractable[loaded][];
+                for (int i = 0; i < loaded; i++) cells[i] = provider.loadRow(rows[i], columns);
+                return cells;
+            }, Threads.ASYNC);
+        } catch (RejectedExecutionException e) {
+            for (int i = 0; i < loaded; i++) this.loadingRows.remove(rows[i]);
+            LOGGER.log(Level.SEVERE, "Could not start prefetching rows", e);
+            return;
+        }
+        future.whenCompleteAsync((cells, e) -> {
+            // Rows loaded for a replaced or invalidated provider are dropped
+            if (version != this.providerVersion) return;
+            for (int i = 0; i < loaded; i++) this.loadingRows.remove(rows[i]);
+            if (e != null) {
+                LOGGER.log(Level.SEVERE, "Could not prefetch rows of the ScrollingGui", e);
+                return;
+            }
+            for (int i = 0; i < loaded; i++) this.rowCache.putIfAbsent(rows[i], cells[i]);
+        }, Threads.MAIN);
     }
 
     /**
      * @return The current slot anchored to the top, left of the {@link ScrollingGui}
      */
     public int getSlot() {
-        return row * column;
+        return this.getSlot(this.row, this.column);
     }
 
     /**
@@ -331,7 +607,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @return The slot corresponding to the row and column
      */
     public int getSlot(@Nonnegative final int row, @Nonnegative final int column) {
-        return row * (this.maxColumn + 8) + column;
+        return row * (this.maxColumn + 9) + column;
     }
 
     /**
@@ -348,7 +624,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @return The row the slot belongs to
      */
     public int getRow(@Nonnegative final int slot) {
-        return slot / (this.maxRow + 5);
+        return slot / (this.maxColumn + 9);
     }
 
     /**
@@ -365,7 +641,7 @@ public abstract class ScrollingGui extends GuiBase {
      * @return The column the slot belongs to
      */
     public int getColumn(@Nonnegative final int slot) {
-        return slot % (this.maxColumn + 8);
+        return slot % (this.maxColumn + 9);
     }
 
     /**
@@ -395,4 +671,15 @@ public abstract class ScrollingGui extends GuiBase {
         final int contextColumn = column - this.column;
         return contextRow * 9 + (contextColumn);
     }
+
+    @Override
+    protected long estimateRetainedItems() {
+        long items = super.estimateRetainedItems() + this.stickyItems.size();
+        // Shared content is not retained by any single GUI
+        if (this.content.getViewerCount() <= 1) items += this.content.size();
+        if (this.rowCache != null) {
+            for (final GuiInteractable[] cells : this.rowCache.values()) items += cells.length;
+        }
+        return items;
+    }
 }
@@ -0,0 +1,65 @@
+package com.github.conquestmc.epitomyui.scrolling;
+
+import com.github.conquestmc.epitomyui.GuiBase;
+import com.github.conquestmc.epitomyui.GuiTemplate;
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.layers.Layer;
+
+import javax.annotation.Nonnull;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A {@link GuiTemplate} that also captures the scrollable content,
+ * sticky items and scroll handlers of a {@link ScrollingGui}.
+ * <p>
+ * Sticky items keeping state are copied for every GUI, like the
+ * interactables of any template. The cells of the content are shared
+ * until a GUI changes them, as with {@link ScrollingContent#fork()},
+ * so interactables keeping state in a cell are shared by every GUI.
+ * Set such items on the content after applying the template instead.
+ */
+public class ScrollingGuiTemplate extends GuiTemplate {
+    private final ScrollingContent content;
+    private final Layer stickyItems;
+    private final Layer handlers;
+
+    public ScrollingGuiTemplate(@Nonnull final ScrollingGui gui) {
+        super(gui);
+        this.content = gui.getContent().fork();
+        this.stickyItems = gui.getStickyItems().copy();
+        this.handlers = gui.getHandlers().copy();
+    }
+
+    /**
+     * Replaces the contents of the given GUI with the contents
+     * of the template.
+     *
+     * @param gui The GUI to apply the template to, must be a {@link ScrollingGui}
+     */
+    @Override
+    public void applyTo(@Nonnull final GuiBase gui) {
+        if (!(gui instanceof ScrollingGui scrollingGui)) {
+            throw new IllegalArgumentException("A ScrollingGuiTemplate can only be applied to a ScrollingGui");
+        }
+        final ScrollingContent content = scrollingGui.getContent();
+        if (content.getRows() != this.content.getRows() || content.getColumns() != this.content.getColumns()) {
+            throw new IllegalArgumentException("Template has a different number of rows or columns than the GUI");
+        }
+
+        super.applyTo(gui);
+        final Layer stickyItems = this.stickyItems.copy();
+        final Map<GuiInteractable, GuiInteractable> copies = new IdentityHashMap<>();
+        for (int slot = 0; slot < stickyItems.capacity(); slot++) {
+            final GuiInteractable item = stickyItems.getInteractable(slot);
+            if (item != null) stickyItems.set(slot, copies.computeIfAbsent(item, GuiInteractable::instantiate));
+        }
+        scrollingGui.load(this.content, stickyItems);
+        for (int slot = 0; slot < this.handlers.capacity(); slot++) {
+            if (!(this.handlers.getInteractable(slot) instanceof ScrollHandlerItem handler)) continue;
+            // Handlers are bound to their GUI, so each GUI gets its own
+            scrollingGui.setScrollHandler(slot, handler.getItem(), handler.getScrollDirection());
+        }
+        scrollingGui.update();
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.conquestmc.epitomyui.search;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A prefix index over the tokens of numbered entries. Every token maps
+ * to the sorted ids of the entries containing it, and a prefix query
+ * merges the ids of all tokens starting with the prefix.
+ */
+public class SearchIndex {
+    /**
+     * Prefixes up to this length match many tokens, so their results are cached.
+     */
+    private static final int CACHED_PREFIX_LENGTH = 2;
+    private static final String[] NO_TOKENS = new String[0];
+    private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+    private final Map<String, BitSet> prefixCache = new HashMap<>();
+    private final List<String[]> entryTokens = new ArrayList<>();
+
+    /**
+     * Splits text into lower case tokens of letters and digits.
+     *
+     * @param text The text to split
+     * @return The tokens, in order of appearance and without duplicates
+     */
+    public static @Nonnull String[] tokenize(@Nonnull final String text) {
+        final Set<String> tokens = new LinkedHashSet<>();
+        final String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            final boolean part = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (part && start < 0) start = i;
+            else if (!part && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.isEmpty() ? NO_TOKENS : tokens.toArray(NO_TOKENS);
+    }
+
+    /**
+     * Adds the next entry to the index. Entries are numbered in the
+     * order they are added, starting at zero.
+     *
+     * @param texts The texts to index the entry by
+     * @return The id of the entry
+     */
+    public int add(@Nonnull final String... texts) {
+        final int id = this.entryTokens.size();
+        final Set<String> unique = new LinkedHashSet<>();
+        for (final String text : texts) unique.addAll(Arrays.asList(tokenize(text)));
+        final String[] tokens = unique.toArray(NO_TOKENS);
+        for (final String token : tokens) this.tokens.computeIfAbsent(token, key -> new Postings()).add(id);
+        this.entryTokens.add(tokens);
+        this.prefixCache.clear();
+        return id;
+    }
+
+    /**
+     * Gets all entries with a token starting with the given prefix.
+     * The returned set may be cached, so it must not be modified.
+     *
+     * @param prefix The lower case prefix to look up
+     * @return The ids of the matching entries
+     */
+    public @Nonnull BitSet prefix(@Nonnull final String prefix) {
+        if (prefix.length() > CACHED_PREFIX_LENGTH) return this.collect(prefix);
+        return this.prefixCache.computeIfAbsent(prefix, this::collect);
+    }
+
+    private @Nonnull BitSet collect(@Nonnull final String prefix) {
+        final BitSet ids = new BitSet(this.entryTokens.size());
+        for (final Postings postings : this.tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            for (int i = 0; i < postings.size; i++) ids.set(postings.ids[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Checks an entry against a query without going through the index,
+     * which is faster when only a few entries are left to check.
+     *
+     * @param id The id of the entry to check
+     * @param prefixes The lower case prefixes that must all match a token of the entry
+     * @return True if every prefix matches, otherwise false
+     */
+    public boolean matches(@Nonnegative final int id, @Nonnull final String[] prefixes) {
+        final String[] tokens = this.entryTokens.get(id);
+        outer:
+        for (final String prefix : prefixes) {
+            for (final String token : tokens) {
+                if (token.startsWith(prefix)) continue outer;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    public void clear() {
+        this.tokens.clear();
+        this.prefixCache.clear();
+        this.entryTokens.clear();
+    }
+
+    /**
+     * @return The number of entries in the index
+     */
+    public int size() {
+        return this.entryTokens.size();
+    }
+
+    /**
+     * @return The number of distinct tokens in the index
+     */
+    public int getTokenCount() {
+        return this.tokens.size();
+    }
+
+    /**
+     * The ids of the entries containing a token. Ids are added in
+     * increasing order, so the array stays sorted.
+     */
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(final int id) {
+            if (this.size == this.ids.length) this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            this.ids[this.size++] = id;
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.github.conquestmc.epitomyui.search;
+
+import com.github.conquestmc.epitomyui.items.GuiInteractable;
+import com.github.conquestmc.epitomyui.paginated.PaginatedGui;
+import com.github.conquestmc.epitomyui.scrolling.RowProvider;
+import com.github.conquestmc.epitomyui.scrolling.ScrollingGui;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A list of entries that can be searched, filtered and sorted, and
+ * whose matching entries are shown in a GUI. Entries are indexed by
+ * the words of their keys if a key function is given, otherwise by the
+ * words of their display name, or their material if they have none.
+ * Reading the name builds the item of a {@link com.github.conquestmc.epitomyui.items.LazyGuiItem},
+ * so give a key function for long lists of lazy entries. Names and keys
+ * are read once when an entry is added, call {@link #reindex()} after
+ * they change.
+ * <p>
+ * Filters and sort orders are evaluated once when they are set, so a
+ * search only has to look up the query in the index. A query extending
+ * the previous one, as while typing, only checks the previous matches.
+ *
+ * @param <T> The type of entry
+ */
+public class SearchableContent<T extends GuiInteractable> {
+    /**
+     * Sort orders of at least this many entries are sorted in parallel.
+     */
+    public static final int PARALLEL_SORT_THRESHOLD = 8192;
+    /**
+     * Narrowed queries with at most this many candidates check them
+     * directly instead of going through the index.
+     */
+    private static final int NARROW_SCAN_LIMIT = 1024;
+    private static final String[] NO_TOKENS = new String[0];
+    private final Function<? super T, ? extends Collection<String>> keys;
+    private final SearchIndex index;
+    private final List<T> entries;
+    private final Set<PaginatedGui> paginatedViewers;
+    private final Map<ScrollingGui, RowProvider> scrollingViewers;
+    private Predicate<? super T> filter;
+    private BitSet filtered;
+    private Comparator<? super T> comparator;
+    private int[] order;
+    private int[] rank;
+    private String[] query;
+    private BitSet matches;
+    private volatile List<T> view;
+
+    public SearchableContent() {
+        this(null);
+    }
+
+    /**
+     * @param keys Gets the keys to index an entry by instead of its name, or null to index entries by name
+     */
+    public SearchableContent(@Nullable final Function<? super T, ? extends Collection<String>> keys) {
+        this.keys = keys;
+        this.index = new SearchIndex();
+        this.entries = new ArrayList<>();
+        this.paginatedViewers = Collections.newSetFromMap(new WeakHashMap<>());
+        this.scrollingViewers = new WeakHashMap<>();
+        this.query = NO_TOKENS;
+        this.view = Collections.emptyList();
+    }
+
+    /**
+     * Replaces all entries and shows the ones matching the current
+     * query and filter.
+     *
+     * @param entries The entries to set
+     */
+    public void setEntries(@Nonnull final Collection<? extends T> entries) {
+        this.entries.clear();
+        this.index.clear();
+        for (final T entry : entries) this.addToIndex(entry);
+        this.recompute();
+    }
+
+    /**
+     * Adds an entry to the end of the list. The filter and sort order
+     * are evaluated again, so use {@link #setEntries(Collection)} to
+     * add many entries at once.
+     *
+     * @param entry The entry to add
+     */
+    public void add(@Nonnull final T entry) {
+        this.addToIndex(entry);
+        this.recompute();
+    }
+
+    /**
+     * Indexes all entries again, e.g. after their names or keys
+     * changed. Also evaluates the filter and sort order again.
+     */
+    public void reindex() {
+        this.setEntries(List.copyOf(this.entries));
+    }
+
+    private void addToIndex(@Nonnull final T entry) {
+        if (this.keys == null) this.index.add(getName(entry.getItem()));
+        else this.index.add(this.keys.apply(entry).toArray(NO_TOKENS));
+        this.entries.add(entry);
+    }
+
+    private void recompute() {
+        this.refilter(false);
+        this.resort(false);
+        this.matches = null;
+        this.search(this.query);
+    }
+
+    /**
+     * Shows only the entries with a word starting with every word
+     * of the query. An empty query shows all entries.
+     *
+     * @param query The query to search for
+     * @return The matching entries that pass the filter, in sort order
+     */
+    public @Nonnull List<T> search(@Nonnull final String query) {
+        return this.search(SearchIndex.tokenize(query));
+    }
+
+    private @Nonnull List<T> search(@Nonnull final String[] query) {
+        BitSet matches = null;
+        if (query.length > 0) {
+            if (this.matches != null && this.narrows(query)) {
+                matches = this.narrow(this.matches, query);
+            } else {
+                for (final String token : query) {
+                    final BitSet ids = this.index.prefix(token);
+                    if (matches == null) matches = (BitSet) ids.clone();
+                    else matches.and(ids);
+                }
+            }
+        }
+        this.query = query;
+        this.matches = matches;
+        return this.publish();
+    }
+
+    /**
+     * Checks if every entry matching the query also matches the
+     * previous query, which is the case while a query is being typed.
+     */
+    private boolean narrows(@Nonnull final String[] query) {
+        if (query.length < this.query.length) return false;
+        for (int i = 0; i < this.query.length; i++) {
+            if (!query[i].startsWith(this.query[i])) return false;
+        }
+        return true;
+    }
+
+    private @Nonnull BitSet narrow(@Nonnull final BitSet candidates, @Nonnull final String[] query) {
+        if (candidates.cardinality() <= NARROW_SCAN_LIMIT) {
+            final BitSet matches = new BitSet(this.entries.size());
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (this.index.matches(id, query)) matches.set(id);
+            }
+            return matches;
+        }
+        final BitSet matches = (BitSet) candidates.clone();
+        for (final String token : query) matches.and(this.index.prefix(token));
+        return matches;
+    }
+
+    /**
+     * Sets the filter entries must pass to be shown. The filter is
+     * evaluated once for every entry, call {@link #refilter()} if the
+     * result changes.
+     *
+     * @param filter The filter, or null to show all matching entries
+     */
+    public void setFilter(@Nullable final Predicate<? super T> filter) {
+        this.filter = filter;
+        this.refilter();
+    }
+
+    /**
+     * Evaluates the filter again for every entry.
+     */
+    public void refilter() {
+        this.refilter(true);
+    }
+
+    private void refilter(final boolean publish) {
+        if (this.filter == null) {
+            this.filtered = null;
+        } else {
+            this.filtered = new BitSet(this.entries.size());
+            for (int id = 0; id < this.entries.size(); id++) {
+                if (this.filter.test(this.entries.get(id))) this.filtered.set(id);
+            }
+        }
+        if (publish) this.publish();
+    }
+
+    /**
+     * Sets the order entries are shown in. Large lists are sorted
+     * in parallel, so the comparator must be thread-safe.
+     *
+     * @param comparator The comparator, or null to keep the order the entries were added in
+     */
+    public void setComparator(@Nullable final Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.resort();
+    }
+
+    /**
+     * Sorts all entries again, e.g. after the values compared changed.
+     */
+    public void resort() {
+        this.resort(true);
+    }
+
+    private void resort(final boolean publish) {
+        if (this.comparator == null) {
+            this.order = null;
+            this.rank = null;
+        } else {
+            final Integer[] ids = new Integer[this.entries.size()];
+            for (int id = 0; id < ids.length; id++) ids[id] = id;
+            final Comparator<Integer> byEntry = (a, b) -> this.comparator.compare(this.entries.get(a), this.entries.get(b));
+            if (ids.length >= PARALLEL_SORT_THRESHOLD) Arrays.parallelSort(ids, byEntry);
+            else Arrays.sort(ids, byEntry);
+
+            this.order = new int[ids.length];
+            this.rank = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                this.order[i] = ids[i];
+                this.rank[ids[i]] = i;
+            }
+        }
+        if (publish) this.publish();
+    }
+
+    /**
+     * Builds the view from the matches, filter and sort order, and
+     * shows it in all bound GUIs.
+     */
+    private @Nonnull List<T> publish() {
+        final BitSet visible;
+        if (this.matches == null && this.filtered == null) {
+            visible = new BitSet(this.entries.size());
+            visible.set(0, this.entries.size());
+        } else if (this.matches == null) {
+            visible = this.filtered;
+        } else if (this.filtered == null) {
+            visible = this.matches;
+        } else {
+            visible = (BitSet) this.matches.clone();
+            visible.and(this.filtered);
+        }
+
+        final int count = visible.cardinality();
+        final List<T> view = new ArrayList<>(count);
+        if (this.order == null) {
+            for (int id = visible.nextSetBit(0); id >= 0; id = visible.nextSetBit(id + 1)) view.add(this.entries.get(id));
+        } else if (count * 8 < this.entries.size()) {
+            // Few matches, sorting their ranks is cheaper than walking the whole order
+            final int[] ranks = new int[count];
+            int i = 0;
+            for (int id = visible.nextSetBit(0); id >= 0; id = visible.nextSetBit(id + 1)) ranks[i++] = this.rank[id];
+            Arrays.sort(ranks);
+            for (final int rank : ranks) view.add(this.entries.get(this.order[rank]));
+        } else {
+            for (final int id : this.order) {
+                if (visible.get(id)) view.add(this.entries.get(id));
+            }
+        }
+
+        this.view = Collections.unmodifiableList(view);
+        // Bound GUIs may be unbound while they update
+        for (final PaginatedGui gui : List.copyOf(this.paginatedViewers)) gui.setEntries(this.view);
+        for (final ScrollingGui gui : List.copyOf(this.scrollingViewers.keySet())) gui.invalidateRows();
+        return this.view;
+    }
+
+    /**
+     * @return The entries matching the current query and filter, in sort order
+     */
+    public @Nonnull List<T> getView() {
+        return this.view;
+    }
+
+    /**
+     * @return All entries, in the order they were added
+     */
+    public @Nonnull List<T> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * Shows the view in a paginated GUI, which returns to the first
+     * page whenever the view changes. Bound GUIs are only weakly
+     * referenced, so they do not have to be unbound to be collected.
+     *
+     * @param gui The GUI to show the view in
+     */
+    public void bind(@Nonnull final PaginatedGui gui) {
+        gui.setEntries(this.view);
+        this.paginatedViewers.add(gui);
+    }
+
+    /**
+     * Shows the view in a scrolling GUI, laid out in rows of the
+     * given number of columns. Replaces the GUI's row provider.
+     * Bound GUIs are only weakly referenced, so they do not have
+     * to be unbound to be collected.
+     *
+     * @param gui The GUI to show the view in
+     * @param columns The number of entries per row, at most the number of columns of the GUI's content
+     */
+    public void bind(@Nonnull final ScrollingGui gui, @Nonnegative final int columns) {
+        final int width = gui.getContent().getColumns();
+        if (columns > width) {
+            // Entries in the extra columns would be laid out, but never shown
+            throw new IllegalArgumentException("Rows of " + columns + " entries do not fit the " + width + " columns of the GUI");
+        }
+        final RowProvider provider = this.asRowProvider(columns);
+        gui.setRowProvider(provider, 0);
+        this.scrollingViewers.put(gui, provider);
+    }
+
+    /**
+     * Stops showing changes of the view in a paginated GUI. The GUI
+     * keeps the entries it currently shows.
+     *
+     * @param gui The GUI to unbind
+     */
+    public void unbind(@Nonnull final PaginatedGui gui) {
+        this.paginatedViewers.remove(gui);
+    }
+
+    /**
+     * Stops showing the view in a scrolling GUI. The GUI shows its
+     * own items again, unless its row provider was replaced since.
+     *
+     * @param gui The GUI to unbind
+     */
+    public void unbind(@Nonnull final ScrollingGui gui) {
+        final RowProvider provider = this.scrollingViewers.remove(gui);
+        if (provider != null && gui.getRowProvider() == provider) gui.setRowProvider(null, 0);
+    }
+
+    /**
+     * Lays the view out in rows. The provider always reads the latest
+     * view, so it can be shared by several GUIs.
+     *
+     * @param columns The number of entries per row
+     * @return The row provider
+     */
+    public @Nonnull RowProvider asRowProvider(@Nonnegative final int columns) {
+        if (columns == 0) throw new IllegalArgumentException("Rows need at least one column");
+        return new RowProvider() {
+            @Override
+            public int getRowCount() {
+                return (SearchableContent.this.view.size() + columns - 1) / columns;
+            }
+
+            @Override
+            public @Nonnull GuiInteractable[] loadRow(final int row, final int width) {
+                final List<T> view = SearchableContent.this.view;
+                final GuiInteractable[] cells = new GuiInteractable[Math.max(width, columns)];
+                final int start = row * columns;
+                final int end = Math.min(start + columns, view.size());
+                for (int i = start; i < end; i++) cells[i - start] = view.get(i);
+                return cells;
+            }
+        };
+    }
+
+    /**
+     * Gets the text an item is indexed by.
+     *
+     * @param item The item to get the text of
+     * @return The plain display name of the item, or its material if it has none
+     */
+    private static @Nonnull String getName(@Nullable final ItemStack item) {
+        if (item == null) return "";
+        if (item.hasItemMeta()) {
+            final ItemMeta meta = item.getItemMeta();
+            if (meta.hasDisplayName()) return PlainTextComponentSerializer.plainText().serialize(meta.displayName());
+        }
+        return item.getType().name().replace('_', ' ');
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * A sparse two-dimensional grid of values. The grid is split into
+ * fixed-size chunks, which are only allocated once a cell in them is
+ * set and dropped again once all their cells are cleared. Cells
+ * without a value read as the fill value, so filling the whole grid
+ * needs no chunks at all. Copies share their chunks until either grid
+ * writes to one, which then gets its own copy of that chunk.
+ *
+ * @param <T> The type of value stored in the grid
+ */
+public class ChunkedGrid<T> {
+    private static final int CHUNK_ROWS = 16;
+    private static final int MAX_CHUNK_COLUMNS = 16;
+    /**
+     * Marks a cell that was cleared while the grid has a fill value.
+     */
+    private static final Object CLEARED = new Object();
+
+    private final int rows;
+    private final int columns;
+    private final int chunkColumns;
+    private final int chunksPerRow;
+    private final Object[][] chunks;
+    private final int[] counts;
+    private final boolean[] shared;
+    private T fillValue;
+    private int size;
+
+    public ChunkedGrid(@Nonnegative final int rows, @Nonnegative final int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.chunkColumns = Math.max(1, Math.min(columns, MAX_CHUNK_COLUMNS));
+        this.chunksPerRow = (columns + this.chunkColumns - 1) / this.chunkColumns;
+        final int chunkCount = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS * this.chunksPerRow;
+        this.chunks = new Object[chunkCount][];
+        this.counts = new int[chunkCount];
+        this.shared = new boolean[chunkCount];
+    }
+
+    private ChunkedGrid(@Nonnull final ChunkedGrid<T> other) {
+        this.rows = other.rows;
+        this.columns = other.columns;
+        this.chunkColumns = other.chunkColumns;
+        this.chunksPerRow = other.chunksPerRow;
+        this.chunks = new Object[other.chunks.length][];
+        this.counts = new int[other.counts.length];
+        this.shared = new boolean[other.shared.length];
+        this.copyFrom(other);
+    }
+
+    private int chunk(final int row, final int column) {
+        return row / CHUNK_ROWS * this.chunksPerRow + column / this.chunkColumns;
+    }
+
+    private int cell(final int row, final int column) {
+        return row % CHUNK_ROWS * this.chunkColumns + column % this.chunkColumns;
+    }
+
+    /**
+     * Gets the value of a cell.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @return The value, or the fill value if the cell was not set
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(@Nonnegative final int row, @Nonnegative final int column) {
+        final Object[] chunk = this.chunks[this.chunk(row, column)];
+        if (chunk == null) return this.fillValue;
+        final Object value = chunk[this.cell(row, column)];
+        if (value == null) return this.fillValue;
+        return value == CLEARED ? null : (T) value;
+    }
+
+    /**
+     * Sets the value of a cell.
+     *
+     * @param row The row of the cell
+     * @param column The column of the cell
+     * @param value The value to set, or null to clear the cell
+     */
+    public void set(@Nonnegative final int row, @Nonnegative final int column, @Nullable final T value) {
+        if (row >= this.rows || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Cell " + row + ", " + column + " is outside the grid");
+        }
+        final int index = this.chunk(row, column);
+        final int cell = this.cell(row, column);
+        Object[] chunk = this.chunks[index];
+
+        // Cells matching the fill value are left unset, so they take no chunk space
+        final Object stored = value == this.fillValue ? null : value == null ? CLEARED : value;
+        final Object previous = chunk == null ? null : chunk[cell];
+        if (previous == stored) return;
+
+        if (chunk == null) {
+            chunk = new Object[CHUNK_ROWS * this.chunkColumns];
+            this.chunks[index] = chunk;
+        } else if (this.shared[index]) {
+            chunk = chunk.clone();
+            this.chunks[index] = chunk;
+            this.shared[index] = false;
+        }
+        chunk[cell] = stored;
+        if (previous == null) {
+            this.counts[index]++;
+            this.size++;
+        } else if (stored == null) {
+            this.size--;
+            if (--this.counts[index] == 0) this.chunks[index] = null;
+        }
+    }
+
+    /**
+     * Sets every cell of the grid to the same value. Takes no
+     * memory for the cells themselves.
+     *
+     * @param value The value to fill the grid with, or null to clear it
+     */
+    public void fill(@Nullable final T value) {
+        Arrays.fill(this.chunks, null);
+        Arrays.fill(this.counts, 0);
+        Arrays.fill(this.shared, false);
+        this.size = 0;
+        this.fillValue = value;
+    }
+
+    /**
+     * Clears every cell of the grid.
+     */
+    public void clear() {
+        this.fill(null);
+    }
+
+    /**
+     * @return True if no cell of the grid has a value, otherwise false
+     */
+    public boolean isEmpty() {
+        return this.size == 0 && this.fillValue == null;
+    }
+
+    /**
+     * @return The number of cells set to something other than the fill value
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The value of cells that were not set, or null if there is none
+     */
+    public @Nullable T getFillValue() {
+        return this.fillValue;
+    }
+
+    /**
+     * @return The number of chunks currently allocated
+     */
+    public int getChunkCount() {
+        int count = 0;
+        for (final Object[] chunk : this.chunks) if (chunk != null) count++;
+        return count;
+    }
+
+    public int getRows() {
+        return this.rows;
+    }
+
+    public int getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * Replaces the contents of this grid with the contents of
+     * another grid of the same size. Values are shared, and so are
+     * chunks until either grid writes to them.
+     *
+     * @param other The grid to copy from
+     */
+    public void copyFrom(@Nonnull final ChunkedGrid<? extends T> other) {
+        if (other.rows != this.rows || other.columns != this.columns) {
+            throw new IllegalArgumentException("Cannot copy a grid of a different size");
+        }
+        for (int i = 0; i < this.chunks.length; i++) {
+            this.chunks[i] = other.chunks[i];
+            final boolean shared = other.chunks[i] != null;
+            this.shared[i] = shared;
+            other.shared[i] |= shared;
+        }
+        System.arraycopy(other.counts, 0, this.counts, 0, this.counts.length);
+        this.fillValue = other.fillValue;
+        this.size = other.size;
+    }
+
+    /**
+     * Copies the grid without copying any chunks. Chunks are
+     * copied lazily, the first time either grid writes to them.
+     *
+     * @return A copy of the grid, sharing its values
+     */
+    public @Nonnull ChunkedGrid<T> copy() {
+        return new ChunkedGrid<>(this);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, least recently used cache of parsed MiniMessage strings.
+ * {@link Component}s are immutable, so cached results are shared.
+ */
+public class ComponentCache {
+    private static final int DEFAULT_MAX_SIZE = 1024;
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static int maxSize = DEFAULT_MAX_SIZE;
+    private static final Map<String, Component> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Component> eldest) {
+            return this.size() > maxSize;
+        }
+    };
+
+    /**
+     * Parses a MiniMessage string, reusing the result of an earlier
+     * parse of the same string where possible.
+     *
+     * @param input The MiniMessage string to parse
+     * @return The parsed {@link Component}
+     */
+    public static @Nonnull Component parse(@Nonnull final String input) {
+        synchronized (cache) {
+            final Component component = cache.get(input);
+            if (component != null) {
+                hits.increment();
+                return component;
+            }
+        }
+        misses.increment();
+        final Component component = MiniMessage.miniMessage().deserialize(input);
+        synchronized (cache) {
+            cache.put(input, component);
+        }
+        return component;
+    }
+
+    /**
+     * Sets the maximum number of cached strings. Least recently used
+     * entries are evicted once the cache is full.
+     *
+     * @param size The maximum number of entries
+     */
+    public static void setMaxSize(@Nonnegative final int size) {
+        synchronized (cache) {
+            maxSize = size;
+            while (cache.size() > maxSize) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Removes all cached entries.
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return The number of cached entries
+     */
+    public static int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * @return The number of parses served from the cache
+     */
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of parses that were not cached
+     */
+    public static long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.TextReplacementConfig;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import javax.annotation.Nonnull;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+/**
+ * A MiniMessage string that is parsed once and filled in with
+ * placeholder values afterwards, e.g.
+ * <pre>{@code
+ * ComponentTemplate price = ComponentTemplate.compile("<gold>Price: <price>", "price");
+ * item.setName(price.apply("250"));
+ * }</pre>
+ * Filling in values only replaces text in the parsed component,
+ * without parsing the MiniMessage string again.
+ */
+public class ComponentTemplate {
+    private static final char PRIVATE_USE_START = '\uE000';
+    private static final char PRIVATE_USE_END = '\uF8FF';
+    private static final int MAX_PLACEHOLDERS = 256;
+    private final Component component;
+    private final String[] placeholders;
+    private final char markerBase;
+    private final Pattern markerPattern;
+
+    private ComponentTemplate(@Nonnull final String input, @Nonnull final String[] placeholders) {
+        if (placeholders.length > MAX_PLACEHOLDERS) {
+            throw new IllegalArgumentException("A template can have at most " + MAX_PLACEHOLDERS + " placeholders");
+        }
+        // Each placeholder is parsed as a private use character that is swapped out later
+        this.markerBase = findMarkerBase(input, placeholders.length);
+        this.markerPattern = placeholders.length == 0 ? null : Pattern.compile(String.format(
+                "[\\x{%X}-\\x{%X}]", (int) this.markerBase, this.markerBase + placeholders.length - 1
+        ));
+        final TagResolver[] resolvers = new TagResolver[placeholders.length];
+        for (int i = 0; i < placeholders.length; i++) {
+            final Component marker = Component.text(String.valueOf((char) (this.markerBase + i)));
+            resolvers[i] = TagResolver.resolver(placeholders[i], Tag.selfClosingInserting(marker));
+        }
+        this.component = MiniMessage.miniMessage().deserialize(input, resolvers);
+        this.placeholders = placeholders.clone();
+    }
+
+    /**
+     * Finds a run of private use characters that do not appear in the
+     * input, since resource pack fonts use them for custom icons.
+     *
+     * @param input The MiniMessage string to parse
+     * @param count The number of markers needed
+     * @return The first marker character
+     */
+    private static char findMarkerBase(@Nonnull final String input, final int count) {
+        final BitSet used = new BitSet();
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (c >= PRIVATE_USE_START && c <= PRIVATE_USE_END) used.set(c - PRIVATE_USE_START);
+        }
+        int start = 0;
+        for (int next = used.nextSetBit(0); next >= 0 && next - start < count; next = used.nextSetBit(start)) start = next + 1;
+        if (start + count > PRIVATE_USE_END - PRIVATE_USE_START + 1) {
+            throw new IllegalArgumentException("The template uses too many private use characters to add placeholders");
+        }
+        return (char) (PRIVATE_USE_START + start);
+    }
+
+    /**
+     * Parses a MiniMessage string containing the given placeholder tags.
+     *
+     * @param input The MiniMessage string to parse
+     * @param placeholders The names of the placeholder tags, e.g. "price" for {@code <price>}
+     * @return The compiled template
+     */
+    public static @Nonnull ComponentTemplate compile(@Nonnull final String input, @Nonnull final String... placeholders) {
+        return new ComponentTemplate(input, placeholders);
+    }
+
+    /**
+     * Fills in the placeholders with plain text values.
+     *
+     * @param values The values, in the order the placeholders were given
+     * @return The resulting {@link Component}
+     */
+    public @Nonnull Component apply(@Nonnull final String... values) {
+        this.checkValues(values.length);
+        if (values.length == 0) return this.component;
+        return this.component.replaceText(TextReplacementConfig.builder()
+                .match(this.markerPattern)
+                .replacement((match, builder) -> {
+                    final int index = this.getMarkerIndex(match.group());
+                    return index < 0 ? builder : builder.content(values[index]);
+                })
+                .build());
+    }
+
+    /**
+     * Fills in the placeholders with components.
+     *
+     * @param values The values, in the order the placeholders were given
+     * @return The resulting {@link Component}
+     */
+    public @Nonnull Component apply(@Nonnull final ComponentLike... values) {
+        this.checkValues(values.length);
+        if (values.length == 0) return this.component;
+        return this.component.replaceText(TextReplacementConfig.builder()
+                .match(this.markerPattern)
+                .replacement((match, builder) -> {
+                    final int index = this.getMarkerIndex(match.group());
+                    return index < 0 ? builder : values[index];
+                })
+                .build());
+    }
+
+    /**
+     * @param marker The matched marker
+     * @return The index of the placeholder, or -1 if it is not one of this template's markers
+     */
+    private int getMarkerIndex(@Nonnull final String marker) {
+        final int index = marker.charAt(0) - this.markerBase;
+        return index >= 0 && index < this.placeholders.length ? index : -1;
+    }
+
+    private void checkValues(final int count) {
+        if (count == this.placeholders.length) return;
+        throw new IllegalArgumentException("Expected " + this.placeholders.length + " values, but got " + count);
+    }
+
+    /**
+     * @return The names of the placeholder tags
+     */
+    public @Nonnull String[] getPlaceholders() {
+        return this.placeholders.clone();
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An open-addressing hash map with primitive int keys. Used for
+ * large, sparsely populated slot ranges where a {@link SlotTable}
+ * would waste memory.
+ *
+ * @param <T> The type of value stored in the map
+ */
+public class IntObjectMap<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public IntObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectMap(@Nonnegative final int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < expectedSize * 2) capacity <<= 1;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    private IntObjectMap(@Nonnull final IntObjectMap<T> other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.mask = other.mask;
+        this.size = other.size;
+    }
+
+    private int index(final int key) {
+        final int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key The key to get the value for
+     * @return The value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(final int key) {
+        for (int i = this.index(key); ; i = (i + 1) & this.mask) {
+            final Object value = this.values[i];
+            if (value == null) return null;
+            if (this.keys[i] == key) return (T) value;
+        }
+    }
+
+    /**
+     * Maps the given key to a value.
+     *
+     * @param key The key to map
+     * @param value The value to map the key to
+     * @return The previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T put(final int key, @Nonnull final T value) {
+        int i = this.index(key);
+        for (; this.values[i] != null; i = (i + 1) & this.mask) {
+            if (this.keys[i] != key) continue;
+            final T previous = (T) this.values[i];
+            this.values[i] = value;
+            return previous;
+        }
+        this.keys[i] = key;
+        this.values[i] = value;
+        if (++this.size * 2 > this.values.length) this.resize(this.values.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes the value mapped to the given key.
+     *
+     * @param key The key to remove
+     * @return The removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T remove(final int key) {
+        int gap = this.index(key);
+        for (; this.values[gap] != null; gap = (gap + 1) & this.mask) {
+            if (this.keys[gap] == key) break;
+        }
+        final T previous = (T) this.values[gap];
+        if (previous == null) return null;
+        this.values[gap] = null;
+        this.size--;
+
+        // Shift back following entries so no lookup stops early at the gap
+        for (int i = (gap + 1) & this.mask; this.values[i] != null; i = (i + 1) & this.mask) {
+            final int ideal = this.index(this.keys[i]);
+            if (((i - ideal) & this.mask) < ((i - gap) & this.mask)) continue;
+            this.keys[gap] = this.keys[i];
+            this.values[gap] = this.values[i];
+            this.values[i] = null;
+            gap = i;
+        }
+        return previous;
+    }
+
+    /**
+     * @param key The key to check
+     * @return True if the key is mapped to a value, otherwise false
+     */
+    public boolean containsKey(final int key) {
+        return this.get(key) != null;
+    }
+
+    /**
+     * Removes all mappings from the map.
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * @return The number of mappings in the map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Replaces the contents of this map with the contents of another.
+     *
+     * @param other The map to copy from
+     */
+    public void copyFrom(@Nonnull final IntObjectMap<? extends T> other) {
+        this.keys = other.keys.clone();
+        this.values = other.values.clone();
+        this.mask = other.mask;
+        this.size = other.size;
+    }
+
+    /**
+     * @return A copy of the map, sharing its values
+     */
+    public @Nonnull IntObjectMap<T> copy() {
+        return new IntObjectMap<>(this);
+    }
+
+    /**
+     * @return A read-only {@link Map} view of the map
+     */
+    public @Nonnull Map<Integer, T> asMap() {
+        return new MapView();
+    }
+
+    private void resize(final int capacity) {
+        final int[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] == null) continue;
+            int i = this.index(oldKeys[j]);
+            while (this.values[i] != null) i = (i + 1) & this.mask;
+            this.keys[i] = oldKeys[j];
+            this.values[i] = oldValues[j];
+        }
+    }
+
+    private final class MapView extends AbstractMap<Integer, T> {
+        @Override
+        public T get(final Object key) {
+            return key instanceof Integer k ? IntObjectMap.this.get(k) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof Integer k && IntObjectMap.this.containsKey(k);
+        }
+
+        @Override
+        public int size() {
+            return IntObjectMap.this.size;
+        }
+
+        @Override
+        public @Nonnull Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @Nonnull Iterator<Entry<Integer, T>> iterator() {
+                    return new Iterator<>() {
+                        private int next = this.advance(0);
+
+                        private int advance(int i) {
+                            while (i < values.length && values[i] == null) i++;
+                            return i;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.next < values.length;
+                        }
+
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public Entry<Integer, T> next() {
+                            if (!this.hasNext()) throw new NoSuchElementException();
+                            final int i = this.next;
+                            this.next = this.advance(i + 1);
+                            return new SimpleImmutableEntry<>(keys[i], (T) values[i]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return IntObjectMap.this.size;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A fixed-size table of values indexed by inventory slot. Lookups
+ * are a plain array access, without boxing or hashing.
+ *
+ * @param <T> The type of value stored in the table
+ */
+public class SlotTable<T> {
+    private final Object[] values;
+    private final Map<Integer, T> view;
+    private int size;
+
+    public SlotTable(@Nonnegative final int capacity) {
+        this.values = new Object[capacity];
+        this.view = new MapView();
+    }
+
+    /**
+     * Gets the value at the given slot.
+     *
+     * @param slot The slot to get the value from
+     * @return The value, or null if there is none or the slot is out of bounds
+     */
+    @SuppressWarnings("unchecked")
+    public @Nullable T get(final int slot) {
+        if (slot < 0 || slot >= this.values.length) return null;
+        return (T) this.values[slot];
+    }
+
+    /**
+     * Sets the value at the given slot.
+     *
+     * @param slot The slot to set the value at
+     * @param value The value to set
+     * @return The previous value, or null if there was none
+     */
+    public @Nullable T put(@Nonnegative final int slot, @Nonnull final T value) {
+        final T previous = this.get(slot);
+        this.values[slot] = value;
+        if (previous == null) this.size++;
+        return previous;
+    }
+
+    /**
+     * Removes the value at the given slot.
+     *
+     * @param slot The slot to remove the value from
+     * @return The removed value, or null if there was none
+     */
+    public @Nullable T remove(final int slot) {
+        final T previous = this.get(slot);
+        if (previous == null) return null;
+        this.values[slot] = null;
+        this.size--;
+        return previous;
+    }
+
+    /**
+     * @param slot The slot to check
+     * @return True if the slot has a value, otherwise false
+     */
+    public boolean containsKey(final int slot) {
+        return this.get(slot) != null;
+    }
+
+    /**
+     * Removes all values from the table.
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+        this.size = 0;
+    }
+
+    /**
+     * Replaces the contents of this table with the contents of another.
+     *
+     * @param other The table to copy from
+     */
+    public void copyFrom(@Nonnull final SlotTable<? extends T> other) {
+        final int length = Math.min(this.values.length, other.values.length);
+        this.clear();
+        System.arraycopy(other.values, 0, this.values, 0, length);
+        for (int slot = 0; slot < length; slot++) {
+            if (this.values[slot] != null) this.size++;
+        }
+    }
+
+    /**
+     * @return The number of slots with a value
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return The number of slots in the table
+     */
+    public int capacity() {
+        return this.values.length;
+    }
+
+    /**
+     * @return A read-only {@link Map} view of the table
+     */
+    public @Nonnull Map<Integer, T> asMap() {
+        return this.view;
+    }
+
+    private final class MapView extends AbstractMap<Integer, T> {
+        @Override
+        public T get(final Object key) {
+            return key instanceof Integer slot ? SlotTable.this.get(slot) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return key instanceof Integer slot && SlotTable.this.containsKey(slot);
+        }
+
+        @Override
+        public int size() {
+            return SlotTable.this.size;
+        }
+
+        @Override
+        public @Nonnull Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public @Nonnull Iterator<Entry<Integer, T>> iterator() {
+                    return new Iterator<>() {
+                        private int next = this.advance(0);
+
+                        private int advance(int slot) {
+                            while (slot < values.length && values[slot] == null) slot++;
+                            return slot;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.next < values.length;
+                        }
+
+                        @Override
+                        public Entry<Integer, T> next() {
+                            if (!this.hasNext()) throw new NoSuchElementException();
+                            final int slot = this.next;
+                            this.next = this.advance(slot + 1);
+                            return new SimpleImmutableEntry<>(slot, SlotTable.this.get(slot));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SlotTable.this.size;
+                }
+            };
+        }
+    }
+}
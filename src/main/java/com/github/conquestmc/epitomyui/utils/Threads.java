@@ -0,0 +1,64 @@
+package com.github.conquestmc.epitomyui.utils;
+
+import org.bukkit.Bukkit;
+
+import javax.annotation.Nonnull;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+public class Threads {
+    private static final Queue<Runnable> mainQueue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * Runs tasks on a pool of daemon threads, for work that should
+     * not block the server tick.
+     */
+    public static final ExecutorService ASYNC = Executors.newCachedThreadPool(task -> {
+        final Thread thread = new Thread(task, "epitomy-ui-async-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Runs tasks on the main server thread. Tasks submitted from
+     * the main thread run immediately, other tasks run at the end
+     * of the current tick.
+     */
+    public static final Executor MAIN = task -> {
+        if (Bukkit.isPrimaryThread()) task.run();
+        else mainQueue.add(task);
+    };
+
+    /**
+     * Queues a task to run on the main thread at the end of the
+     * current tick, even if called from the main thread.
+     *
+     * @param task The task to run
+     */
+    public static void runLater(@Nonnull final Runnable task) {
+        mainQueue.add(task);
+    }
+
+    /**
+     * Runs all queued main thread tasks. Called by the
+     * {@link com.github.conquestmc.epitomyui.UIProvider} once per tick.
+     */
+    public static void drain() {
+        // Tasks queued while draining wait for the next tick
+        for (int remaining = mainQueue.size(); remaining > 0; remaining--) {
+            final Runnable task = mainQueue.poll();
+            if (task == null) return;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Logging.LOGGER.log(Level.SEVERE, "Could not run a queued main thread task", e);
+            }
+        }
+    }
+}